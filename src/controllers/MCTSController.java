@@ -0,0 +1,248 @@
+package controllers;
+
+import dungeon.FlowField;
+import dungeon.play.BatchPlayMap;
+import dungeon.play.GameCharacter;
+import dungeon.play.PlayMap;
+import util.statics.RandomNumberManager;
+
+/**
+ * Monte Carlo tree search (UCT) over the hero's moves. Every decision runs
+ * until it hits an iteration budget or a wall-clock budget, whichever comes
+ * first (a budget of zero or less is ignored).
+ * <p>
+ * Nothing is allocated while searching: tree nodes come from a pool of
+ * parallel arrays that is emptied at the start of each decision, and games
+ * are played on a two-game BatchPlayMap, where game 0 holds the state being
+ * decided on and game 1 is copied from it for every iteration. Rollouts play
+ * random legal moves up to a fixed depth; the state reached is scored by
+ * {@link #evaluate(BatchPlayMap, int)}.
+ */
+public class MCTSController extends Controller {
+	final static int ROOT_GAME = 0;
+	final static int ROLLOUT_GAME = 1;
+	final static int NO_NODE = -1;
+
+	int maxIterations = 0;
+	long maxMillis = 40;
+	int rolloutDepth = 20;
+	double explorationConstant = Math.sqrt(2);
+
+	// node pool: node n has children[n*4+action], NO_NODE where not expanded yet
+	int poolSize;
+	int nodeCount;
+	int[] children;
+	int[] visits;
+	double[] totalValue;
+	byte[] untried;		// legal moves not expanded yet, one bit per direction
+
+	BatchPlayMap games;
+	PlayMap gamesSource;	// the map games was built for
+	FlowField exitField;
+	int maxExitDistance;	// longest finite distance in exitField, to scale progress
+	double collectibles;	// rewards and potions on the map, to scale the score
+	int[] actions = new int[2];
+	int[] path;				// nodes visited by the current iteration
+	long seed;
+
+	// statistics
+	int lastIterations;
+	long lastDecisionNanos;
+	long totalIterations;
+	long totalDecisionNanos;
+	int decisions;
+
+	public MCTSController(PlayMap map, GameCharacter controllingChar){
+		this(map, controllingChar, "MCTSController");
+	}
+	public MCTSController(PlayMap map, GameCharacter controllingChar, String label){
+		super(map,controllingChar,label);
+		setPoolSize(1<<18);
+		seed = RandomNumberManager.getRandomInt() | 1;
+	}
+
+	/** Sets the budgets; either can be zero or less to leave only the other, but not both. */
+	public void setBudget(int maxIterations, long maxMillis){
+		if(maxIterations<=0 && maxMillis<=0){ throw new IllegalArgumentException("MCTS needs an iteration or a time budget"); }
+		this.maxIterations = maxIterations;
+		this.maxMillis = maxMillis;
+	}
+	public void setRolloutDepth(int value){ rolloutDepth = value; }
+	public void setExplorationConstant(double value){ explorationConstant = value; }
+	/** Once the pool is full the tree stops growing, but iterations go on. */
+	public void setPoolSize(int nodes){
+		poolSize = nodes;
+		children = new int[nodes*4];
+		visits = new int[nodes];
+		totalValue = new double[nodes];
+		untried = new byte[nodes];
+	}
+
+	public int getNextAction(){
+		long start = System.nanoTime();
+		prepareGames(2);
+		games.loadGame(ROOT_GAME, map);
+		if(games.isGameHalted(ROOT_GAME)){ return PlayMap.IDLE; }
+		nodeCount = 0;
+		int root = newNode(ROOT_GAME);
+
+		long deadline = start + maxMillis*1000000L;
+		int iterations = 0;
+		while((maxIterations<=0 || iterations<maxIterations) && (maxMillis<=0 || (iterations & 63)!=0 || System.nanoTime()<deadline)){
+			runIteration(root);
+			iterations++;
+		}
+
+		int result = PlayMap.IDLE;
+		int bestVisits = -1;
+		for(int action=0;action<4;action++){
+			int child = children[root*4+action];
+			if(child!=NO_NODE && visits[child]>bestVisits){
+				bestVisits = visits[child];
+				result = action;
+			}
+		}
+		recordDecision(iterations, System.nanoTime()-start);
+		return result;
+	}
+
+	/** (Re)builds the games and the static data evaluate() reads when the map changes. */
+	protected void prepareGames(int gameCount){
+		if(games==null || gamesSource!=map || games.getGames()!=gameCount){
+			games = new BatchPlayMap(map, gameCount);
+			gamesSource = map;
+			exitField = map.getExitFlowField();
+			collectibles = Math.max(1, map.getRewardLength()+map.getPotionLength());
+			maxExitDistance = 0;
+			for(int tile=0;tile<map.getMapSizeX()*map.getMapSizeY();tile++){
+				maxExitDistance = Math.max(maxExitDistance, exitField.getDistance(tile));
+			}
+			path = new int[1024];
+		}
+	}
+
+	protected void recordDecision(int iterations, long nanos){
+		lastIterations = iterations;
+		lastDecisionNanos = nanos;
+		totalIterations += iterations;
+		totalDecisionNanos += nanos;
+		decisions++;
+	}
+
+	/** Selection, expansion, rollout and backup, starting from a fresh copy of the root game. */
+	protected void runIteration(int root){
+		games.copyGame(ROOT_GAME, ROLLOUT_GAME);
+		int node = root;
+		int depth = 0;
+		path[depth++] = node;
+		while(!games.isGameHalted(ROLLOUT_GAME)){
+			if(untried[node]!=0){
+				int action = pickMove(untried[node]);
+				untried[node] &= ~(1<<action);
+				play(action);
+				if(nodeCount<poolSize){
+					int child = newNode(ROLLOUT_GAME);
+					children[node*4+action] = child;
+					node = child;
+					if(depth<path.length){ path[depth++] = node; }
+				}
+				break;
+			}
+			int action = selectChild(node);
+			if(action<0){ break; }
+			play(action);
+			node = children[node*4+action];
+			if(depth<path.length){ path[depth++] = node; }
+		}
+		for(int i=0;i<rolloutDepth && !games.isGameHalted(ROLLOUT_GAME);i++){
+			int action = pickMove(games.getLegalMoves(ROLLOUT_GAME));
+			if(action==PlayMap.IDLE){ break; }
+			play(action);
+		}
+		double value = evaluate(games, ROLLOUT_GAME);
+		for(int i=0;i<depth;i++){
+			visits[path[i]]++;
+			totalValue[path[i]] += value;
+		}
+	}
+
+	/** @return the expanded action with the highest UCB1 score, or -1 if there are none */
+	protected int selectChild(int node){
+		double logVisits = Math.log(Math.max(1, visits[node]));
+		int result = -1;
+		double best = Double.NEGATIVE_INFINITY;
+		for(int action=0;action<4;action++){
+			int child = children[node*4+action];
+			if(child==NO_NODE){ continue; }
+			double score = totalValue[child]/visits[child] + explorationConstant*Math.sqrt(logVisits/visits[child]);
+			if(score>best){
+				best = score;
+				result = action;
+			}
+		}
+		return result;
+	}
+
+	protected int newNode(int game){
+		int result = nodeCount++;
+		for(int action=0;action<4;action++){ children[result*4+action] = NO_NODE; }
+		visits[result] = 0;
+		totalValue[result] = 0;
+		untried[result] = games.isGameHalted(game) ? 0 : (byte)games.getLegalMoves(game);
+		return result;
+	}
+
+	protected void play(int action){
+		actions[ROLLOUT_GAME] = action;
+		games.step(actions, ROLLOUT_GAME, ROLLOUT_GAME+1);
+	}
+
+	/** @return a random direction among the bits of a legal move mask, or IDLE if there are none */
+	protected int pickMove(int moves){
+		seed = nextRandom(seed);
+		return pickMove(moves, seed);
+	}
+	/** xorshift, so rollouts do not contend on a shared Random */
+	static long nextRandom(long seed){
+		seed ^= seed<<13;
+		seed ^= seed>>>7;
+		return seed ^ (seed<<17);
+	}
+	/** @return the direction among the bits of moves that a random number (from nextRandom) picks, or IDLE */
+	static int pickMove(int moves, long random){
+		int count = Integer.bitCount(moves);
+		if(count==0){ return PlayMap.IDLE; }
+		int pick = (int)((random>>>33)%count);
+		for(int action=0;action<4;action++){
+			if((moves & (1<<action))!=0 && pick--==0){ return action; }
+		}
+		return PlayMap.IDLE;
+	}
+
+	/**
+	 * Scores the state of one game in [0,1]: 0 if the hero died, otherwise
+	 * mostly progress towards the exit (1 when reached, up to 0.5 by how close it is),
+	 * plus a share for the score collected and the hitpoints left.
+	 */
+	protected double evaluate(BatchPlayMap games, int game){
+		int hitpoints = games.getHeroHitpoints(game);
+		if(hitpoints<=0){ return 0; }
+		double progress;
+		if(games.isGameHalted(game)){
+			progress = 1;
+		} else {
+			int distance = exitField.getDistance(games.getHeroTile(game));
+			progress = distance<0 ? 0 : 0.5*(1-distance/(double)(maxExitDistance+1));
+		}
+		double score = Math.min(1, games.getHeroScore(game)/collectibles);
+		double health = Math.min(1, hitpoints/(double)controllingChar.getStartingHitpoints());
+		return 0.6*progress + 0.25*score + 0.15*health;
+	}
+
+	public int getLastIterations(){ return lastIterations; }
+	public double getLastDecisionMillis(){ return lastDecisionNanos/1e6; }
+	public double getAverageDecisionMillis(){ return decisions==0 ? 0 : totalDecisionNanos/1e6/decisions; }
+	public double getIterationsPerSecond(){ return totalDecisionNanos==0 ? 0 : totalIterations*1e9/totalDecisionNanos; }
+	public int getDecisions(){ return decisions; }
+	public int getTreeSize(){ return nodeCount; }
+}
@@ -0,0 +1,294 @@
+package controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import dungeon.play.BatchPlayMap;
+import dungeon.play.GameCharacter;
+import dungeon.play.PlayMap;
+
+/**
+ * The search of MCTSController spread over several threads, in one of two modes.
+ * <p>
+ * In tree-parallel mode (the default) all threads grow one shared tree. Its
+ * counters are atomic arrays and nodes are claimed with compare-and-set, so
+ * no lock is taken. A thread adds its visit to every node on the way down and
+ * only adds the value on the way back up; until then the visit counts as a
+ * loss (virtual loss), which steers the other threads to different branches.
+ * <p>
+ * In root-parallel mode every thread grows its own smaller tree from the same
+ * root, and the visits of the root moves are added up over all trees when the
+ * budget runs out.
+ * <p>
+ * Each thread plays its rollouts on its own two-game BatchPlayMap, loaded
+ * with the root state at the start of every decision, so threads never
+ * write to the same game arrays. The iteration budget counts iterations over
+ * all threads together.
+ */
+public class ParallelMCTSController extends MCTSController {
+	final static long VALUE_SCALE = 1L<<20;	// values in [0,1] are summed as fixed point
+	final static int MIN_TREE_SIZE = 1<<12;
+
+	int threads;
+	boolean rootParallel;
+	ExecutorService executor;
+	Tree sharedTree;
+	Tree[] threadTrees;
+	Worker[] workers;
+
+	public ParallelMCTSController(PlayMap map, GameCharacter controllingChar, int threads){
+		this(map, controllingChar, threads, "ParallelMCTSController");
+	}
+	public ParallelMCTSController(PlayMap map, GameCharacter controllingChar, int threads, String label){
+		super(map,controllingChar,label);
+		this.threads = Math.max(1, threads);
+	}
+
+	public void setRootParallel(boolean value){
+		rootParallel = value;
+		threadTrees = null;
+	}
+	public boolean isRootParallel(){ return rootParallel; }
+	public int getThreads(){ return threads; }
+
+	/** In root-parallel mode the nodes are split between the threads' trees. */
+	@Override
+	public void setPoolSize(int nodes){
+		poolSize = nodes;
+		sharedTree = null;
+		threadTrees = null;
+	}
+
+	/** Stops the worker threads; the next decision starts new ones. */
+	public void shutdown(){
+		if(executor!=null){ executor.shutdownNow(); }
+		executor = null;
+	}
+
+	public int getNextAction(){
+		long start = System.nanoTime();
+		prepareGames(2);
+		games.loadGame(ROOT_GAME, map);
+		if(games.isGameHalted(ROOT_GAME)){ return PlayMap.IDLE; }
+		prepareThreads();
+		for(int i=0;i<threads;i++){ workers[i].loadRoot(); }
+		int rootMoves = games.getLegalMoves(ROOT_GAME);
+		if(rootParallel){
+			for(int i=0;i<threads;i++){
+				threadTrees[i].clear();
+				threadTrees[i].newNode(rootMoves);
+			}
+		} else {
+			sharedTree.clear();
+			sharedTree.newNode(rootMoves);
+		}
+
+		AtomicInteger claimed = new AtomicInteger();
+		long deadline = start + maxMillis*1000000L;
+		List<Future<Integer>> running = new ArrayList<Future<Integer>>();
+		for(int i=1;i<threads;i++){
+			workers[i].setBudget(claimed, deadline);
+			running.add(executor.submit(workers[i]));
+		}
+		workers[0].setBudget(claimed, deadline);
+		int iterations = workers[0].call();
+		for(int i=0;i<running.size();i++){
+			try {
+				iterations += running.get(i).get();
+			} catch(Exception e){
+				throw new RuntimeException(e);
+			}
+		}
+
+		int result = PlayMap.IDLE;
+		long bestVisits = -1;
+		for(int action=0;action<4;action++){
+			long actionVisits = 0;
+			boolean expanded = false;
+			Tree[] trees = rootParallel ? threadTrees : new Tree[]{ sharedTree };
+			for(int i=0;i<trees.length;i++){
+				int child = trees[i].children.get(action);
+				if(child!=NO_NODE){
+					actionVisits += trees[i].visits.get(child);
+					expanded = true;
+				}
+			}
+			if(expanded && actionVisits>bestVisits){
+				bestVisits = actionVisits;
+				result = action;
+			}
+		}
+		recordDecision(iterations, System.nanoTime()-start);
+		return result;
+	}
+
+	protected void prepareThreads(){
+		if(executor==null && threads>1){
+			executor = Executors.newFixedThreadPool(threads-1, r -> {
+				Thread thread = new Thread(r, "ParallelMCTS");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		if(workers==null || workers.length!=threads){
+			workers = new Worker[threads];
+			for(int i=0;i<threads;i++){ workers[i] = new Worker(nextRandom(seed+i*0x9E3779B97F4A7C15L) | 1); }
+		}
+		if(rootParallel && threadTrees==null){
+			threadTrees = new Tree[threads];
+			for(int i=0;i<threads;i++){ threadTrees[i] = new Tree(Math.max(MIN_TREE_SIZE, poolSize/threads)); }
+		}
+		if(!rootParallel && sharedTree==null){ sharedTree = new Tree(poolSize); }
+		for(int i=0;i<threads;i++){ workers[i].tree = rootParallel ? threadTrees[i] : sharedTree; }
+	}
+
+	/** A node pool whose counters can be updated by several threads at once. */
+	static class Tree {
+		final int capacity;
+		final AtomicInteger nodeCount = new AtomicInteger();
+		final AtomicIntegerArray children;	// [node*4+action], NO_NODE where not expanded yet
+		final AtomicIntegerArray visits;	// including visits whose value is not back yet
+		final AtomicLongArray totalValue;	// fixed point, see VALUE_SCALE
+		final AtomicIntegerArray untried;	// legal moves not claimed for expansion yet
+
+		Tree(int capacity){
+			this.capacity = capacity;
+			children = new AtomicIntegerArray(capacity*4);
+			visits = new AtomicIntegerArray(capacity);
+			totalValue = new AtomicLongArray(capacity);
+			untried = new AtomicIntegerArray(capacity);
+		}
+
+		void clear(){ nodeCount.set(0); }
+
+		/** @return a new node with the given untried moves, or NO_NODE if the pool is full */
+		int newNode(int moves){
+			int result = nodeCount.getAndIncrement();
+			if(result>=capacity){ return NO_NODE; }
+			for(int action=0;action<4;action++){ children.set(result*4+action, NO_NODE); }
+			visits.set(result, 0);
+			totalValue.set(result, 0);
+			untried.set(result, moves);
+			return result;
+		}
+
+		int size(){ return Math.min(capacity, nodeCount.get()); }
+	}
+
+	/** One thread's share of a decision; plays on its own BatchPlayMap. */
+	class Worker implements Callable<Integer> {
+		final int[] path = new int[1024];
+		final int[] actions = new int[2];
+		BatchPlayMap localGames;
+		PlayMap localSource;	// the map localGames was built for
+		long random;
+		Tree tree;
+		AtomicInteger claimed;
+		long deadline;
+
+		Worker(long random){
+			this.random = random;
+		}
+
+		/** Loads the map's current state into the root game, making the games first if the map changed. */
+		void loadRoot(){
+			if(localGames==null || localSource!=map){
+				localGames = new BatchPlayMap(map, 2);
+				localSource = map;
+			}
+			localGames.loadGame(ROOT_GAME, map);
+		}
+
+		void setBudget(AtomicInteger claimed, long deadline){
+			this.claimed = claimed;
+			this.deadline = deadline;
+		}
+
+		public Integer call(){
+			int iterations = 0;
+			while(maxIterations<=0 || claimed.getAndIncrement()<maxIterations){
+				if(maxMillis>0 && (iterations & 63)==0 && System.nanoTime()>=deadline){ break; }
+				runIteration();
+				iterations++;
+			}
+			return iterations;
+		}
+
+		void runIteration(){
+			localGames.copyGame(ROOT_GAME, ROLLOUT_GAME);
+			int node = 0;
+			int depth = 0;
+			tree.visits.incrementAndGet(node);
+			path[depth++] = node;
+			while(!localGames.isGameHalted(ROLLOUT_GAME)){
+				int moves = tree.untried.get(node);
+				if(moves!=0){
+					random = nextRandom(random);
+					int action = pickMove(moves, random);
+					if(!tree.untried.compareAndSet(node, moves, moves & ~(1<<action))){ continue; }
+					play(action);
+					int child = tree.newNode(localGames.isGameHalted(ROLLOUT_GAME) ? 0 : localGames.getLegalMoves(ROLLOUT_GAME));
+					if(child!=NO_NODE){
+						tree.children.set(node*4+action, child);
+						tree.visits.incrementAndGet(child);
+						if(depth<path.length){ path[depth++] = child; }
+					}
+					break;
+				}
+				int action = selectChild(node);
+				if(action<0){ break; }	// moves claimed by other threads, children not published yet
+				play(action);
+				node = tree.children.get(node*4+action);
+				tree.visits.incrementAndGet(node);
+				if(depth<path.length){ path[depth++] = node; }
+			}
+			for(int i=0;i<rolloutDepth && !localGames.isGameHalted(ROLLOUT_GAME);i++){
+				random = nextRandom(random);
+				int action = pickMove(localGames.getLegalMoves(ROLLOUT_GAME), random);
+				if(action==PlayMap.IDLE){ break; }
+				play(action);
+			}
+			long value = (long)(evaluate(localGames, ROLLOUT_GAME)*VALUE_SCALE);
+			for(int i=0;i<depth;i++){ tree.totalValue.addAndGet(path[i], value); }
+		}
+
+		int selectChild(int node){
+			double logVisits = Math.log(Math.max(1, tree.visits.get(node)));
+			int result = -1;
+			double best = Double.NEGATIVE_INFINITY;
+			for(int action=0;action<4;action++){
+				int child = tree.children.get(node*4+action);
+				if(child==NO_NODE){ continue; }
+				int childVisits = Math.max(1, tree.visits.get(child));
+				double score = tree.totalValue.get(child)/(double)VALUE_SCALE/childVisits + explorationConstant*Math.sqrt(logVisits/childVisits);
+				if(score>best){
+					best = score;
+					result = action;
+				}
+			}
+			return result;
+		}
+
+		void play(int action){
+			actions[ROLLOUT_GAME] = action;
+			localGames.step(actions, ROLLOUT_GAME, ROLLOUT_GAME+1);
+		}
+	}
+
+	@Override
+	public int getTreeSize(){
+		if(rootParallel){
+			int result = 0;
+			for(int i=0;threadTrees!=null && i<threadTrees.length;i++){ result += threadTrees[i].size(); }
+			return result;
+		}
+		return sharedTree==null ? 0 : sharedTree.size();
+	}
+}
@@ -0,0 +1,409 @@
+package controllers;
+
+import java.util.Arrays;
+
+import dungeon.DungeonPaths;
+import dungeon.FlowField;
+import dungeon.play.BatchPlayMap;
+import dungeon.play.BitBoard;
+import dungeon.play.GameCharacter;
+import dungeon.play.PlayMap;
+import util.statics.HashUtils;
+
+/**
+ * Plans the rest of the game with A* over the complete game state (hero
+ * tile, hitpoints and the alive bits of every monster, reward and potion),
+ * then replays the plan one action per call. A new plan is only made when
+ * the map is not in the state the plan predicted, or the plan has run out.
+ * <p>
+ * A plan ends at an exit the hero reaches alive. Every step costs 1 and
+ * reaching the exit adds collectPenalty for each reward or potion left
+ * behind plus one per hitpointsPerStep hitpoints lost, so the plan trades
+ * detours against treasure and health. The heuristic is the number of steps
+ * to the exit (from the exit flow field of the dungeon's paths) plus the
+ * largest price that a single reward or potion still on the map adds: the
+ * penalty for leaving it, or the detour to fetch it on the way to the exit,
+ * whichever is smaller, with distances from the DungeonPaths tables. Neither
+ * part overestimates. States are kept in a transposition table keyed by a
+ * hash of the state, so each one is stored (and expanded) once. Successors
+ * come from a one-game BatchPlayMap, which applies the same rules as PlayMap.
+ * <p>
+ * If no plan is proven best within maxExpansions, the cheapest plan to an
+ * exit seen so far is taken, or failing that the plan to the stored state
+ * closest to the exit.
+ */
+public class PlannerController extends Controller {
+	final static int[] KINDS = { PlayMap.OCCUPANT_MONSTER, PlayMap.OCCUPANT_REWARD, PlayMap.OCCUPANT_POTION };
+	final static int NO_NODE = -1;
+	final static int MAX_COST = (1<<19)-1;	// costs and estimates fit 20 bits of a heap key with the sign bit clear
+	final static int MAX_NODES = 1<<24;		// node indices are packed in 24 bits
+
+	int maxExpansions = 200000;
+	int collectPenalty = 10;
+	int hitpointsPerStep = 4;
+
+	BatchPlayMap games;		// game 0 is loaded with each state to find its successors
+	PlayMap gamesSource;	// the map games was built for
+	FlowField exitField;
+	DungeonPaths paths;
+	int[] collectibleX;		// rewards, then potions, in the order of their alive bits
+	int[] collectibleY;
+	int[] collectibleExitDistance;
+	int stride;				// alive words per state: monsters, then rewards, then potions
+	long[] scratchAlive;
+	int[] stepAction = new int[1];
+
+	// stored states (nodes), by index
+	int nodeCount;
+	int[] nodeTile;
+	int[] nodeHitpoints;
+	int[] nodeScore;
+	int[] nodeCost;			// steps from the root
+	int[] nodeParent;
+	byte[] nodeAction;		// action from the parent
+	boolean[] nodeGoal;		// hero reached an exit alive
+	long[] nodeAlive;		// [node*stride+word]
+	long[] nodeHash;
+	int[] table;			// open addressing, node index or NO_NODE
+	long[] heap;			// (f<<44) | ((MAX_COST-cost)<<24) | node, smallest first
+	int heapSize;
+
+	// the plan being replayed; predicted state i is the state after i actions
+	int[] planActions = new int[0];
+	int[] predictedTile = new int[1];
+	int[] predictedHitpoints = new int[1];
+	long[] predictedAlive = new long[0];
+	int planLength;
+	int planStep;
+	boolean planComplete;
+
+	// statistics
+	long lastExpansions;
+	long lastPlanNanos;
+	long totalExpansions;
+	long totalPlanNanos;
+	int plans;
+
+	public PlannerController(PlayMap map, GameCharacter controllingChar){
+		super(map,controllingChar,"PlannerController");
+	}
+	public PlannerController(PlayMap map, GameCharacter controllingChar, String label){
+		super(map,controllingChar,label);
+	}
+
+	public void reset(){ planLength = 0; }
+
+	public void setMaxExpansions(int value){ maxExpansions = value; }
+	public void setCollectPenalty(int value){ collectPenalty = value; }
+	public void setHitpointsPerStep(int value){ hitpointsPerStep = Math.max(1, value); }
+
+	public int getNextAction(){
+		if(planStep>=planLength || !matchesPrediction()){ plan(); }
+		if(planStep>=planLength){ return PlayMap.IDLE; }
+		return planActions[planStep++];
+	}
+
+	/** @return whether the map is in the state the plan expects before its next action */
+	protected boolean matchesPrediction(){
+		if(gamesSource!=map){ return false; }
+		int tile = map.getTileIndex(map.getHero().getX(), map.getHero().getY());
+		if(tile!=predictedTile[planStep] || map.getHero().getHitpoints()!=predictedHitpoints[planStep]){ return false; }
+		int word = 0;
+		for(int k=0;k<KINDS.length;k++){
+			for(int w=0;w<games.getAliveWordCount(KINDS[k]);w++){
+				if(getAlive(KINDS[k]).getWord(w)!=predictedAlive[planStep*stride+word++]){ return false; }
+			}
+		}
+		return true;
+	}
+
+	protected BitBoard getAlive(int kind){
+		if(kind==PlayMap.OCCUPANT_MONSTER){ return map.getMonstersAlive(); }
+		if(kind==PlayMap.OCCUPANT_REWARD){ return map.getRewardsAlive(); }
+		return map.getPotionsAlive();
+	}
+
+	// ----------------------------------------------------------------
+	// SEARCH
+	// ----------------------------------------------------------------
+
+	/** Searches from the current state of the map and stores the plan found. */
+	public void plan(){
+		long start = System.nanoTime();
+		if(games==null || gamesSource!=map){
+			games = new BatchPlayMap(map, 1);
+			gamesSource = map;
+			exitField = map.getExitFlowField();
+			paths = map.getPaths();
+			int rewards = map.getRewardLength();
+			int collectibles = rewards+map.getPotionLength();
+			collectibleX = new int[collectibles];
+			collectibleY = new int[collectibles];
+			collectibleExitDistance = new int[collectibles];
+			for(int i=0;i<collectibles;i++){
+				collectibleX[i] = (int)(i<rewards ? map.getReward(i).x : map.getPotion(i-rewards).x);
+				collectibleY[i] = (int)(i<rewards ? map.getReward(i).y : map.getPotion(i-rewards).y);
+				collectibleExitDistance[i] = exitField.getDistance(collectibleX[i], collectibleY[i]);
+			}
+			stride = 0;
+			for(int k=0;k<KINDS.length;k++){ stride += games.getAliveWordCount(KINDS[k]); }
+			scratchAlive = new long[stride];
+			nodeCount = 0;
+			nodeTile = null;
+			allocateNodes(1<<12);
+		}
+		games.loadGame(0, map);
+		nodeCount = 0;
+		heapSize = 0;
+		Arrays.fill(table, NO_NODE);
+
+		int root = addNode(NO_NODE, PlayMap.IDLE, 0);
+		int closest = root;
+		int bestGoal = NO_NODE;	// cheapest goal stored so far, in case the budget runs out before one is proven best
+		int found = NO_NODE;
+		long expansions = 0;
+		while(heapSize>0 && expansions<maxExpansions){
+			long key = popHeap();
+			int node = (int)(key & 0xFFFFFF);
+			if(MAX_COST-(int)((key>>>24) & 0xFFFFF)!=nodeCost[node]){ continue; }	// reached more cheaply since
+			if(nodeGoal[node]){
+				found = node;
+				break;
+			}
+			expansions++;
+			loadNode(node);
+			int moves = games.getLegalMoves(0);
+			for(int action=0;action<4;action++){
+				if((moves & (1<<action))==0){ continue; }
+				if(action!=0 && (moves & ((1<<action)-1))!=0){ loadNode(node); }
+				stepAction[0] = action;
+				games.step(stepAction, 0, 1);
+				if(games.getHeroHitpoints(0)<=0){ continue; }
+				int child = addNode(node, action, nodeCost[node]+1);
+				if(child==NO_NODE){ continue; }
+				if(nodeGoal[child]){
+					if(bestGoal==NO_NODE || getEstimate(child)<getEstimate(bestGoal)){ bestGoal = child; }
+				} else if(isCloser(child, closest)){
+					closest = child;
+				}
+			}
+		}
+		if(found==NO_NODE){ found = bestGoal; }
+		storePlan(found!=NO_NODE ? found : closest);
+		planComplete = found!=NO_NODE;
+		lastExpansions = expansions;
+		lastPlanNanos = System.nanoTime()-start;
+		totalExpansions += expansions;
+		totalPlanNanos += lastPlanNanos;
+		plans++;
+	}
+
+	protected boolean isCloser(int node, int other){
+		int distance = exitField.getDistance(nodeTile[node]);
+		int otherDistance = exitField.getDistance(nodeTile[other]);
+		if(distance!=otherDistance){ return otherDistance<0 || (distance>=0 && distance<otherDistance); }
+		return nodeCost[node]<nodeCost[other];
+	}
+
+	/**
+	 * Stores the state of game 0 as reached from parent, or lowers the cost of
+	 * the stored copy if this way is cheaper, and queues it.
+	 * @return the node, or NO_NODE if it was already reached as cheaply or cannot be stored
+	 */
+	protected int addNode(int parent, int action, int cost){
+		int tile = games.getHeroTile(0);
+		int hitpoints = games.getHeroHitpoints(0);
+		boolean goal = games.isGameHalted(0);
+		int distance = exitField.getDistance(tile);
+		if(!goal && distance<0 && parent!=NO_NODE){ return NO_NODE; }
+		int word = 0;
+		for(int k=0;k<KINDS.length;k++){
+			for(int w=0;w<games.getAliveWordCount(KINDS[k]);w++){ scratchAlive[word++] = games.getAliveWord(0, KINDS[k], w); }
+		}
+		long hash = hashState(tile, hitpoints, scratchAlive);
+		int slot = (int)hash & (table.length-1);
+		while(table[slot]!=NO_NODE){
+			int existing = table[slot];
+			if(nodeHash[existing]==hash && isState(existing, tile, hitpoints, scratchAlive)){
+				if(nodeCost[existing]<=cost){ return NO_NODE; }
+				nodeCost[existing] = cost;
+				nodeParent[existing] = parent;
+				nodeAction[existing] = (byte)action;
+				pushHeap(existing);
+				return existing;
+			}
+			slot = (slot+1) & (table.length-1);
+		}
+		if(nodeCount>=MAX_NODES){ return NO_NODE; }
+		if(nodeCount==nodeTile.length){
+			allocateNodes(nodeTile.length*2);
+			slot = (int)hash & (table.length-1);
+			while(table[slot]!=NO_NODE){ slot = (slot+1) & (table.length-1); }
+		}
+		int node = nodeCount++;
+		nodeTile[node] = tile;
+		nodeHitpoints[node] = hitpoints;
+		nodeScore[node] = games.getHeroScore(0);
+		nodeCost[node] = cost;
+		nodeParent[node] = parent;
+		nodeAction[node] = (byte)action;
+		nodeGoal[node] = goal;
+		System.arraycopy(scratchAlive, 0, nodeAlive, node*stride, stride);
+		nodeHash[node] = hash;
+		table[slot] = node;
+		pushHeap(node);
+		return node;
+	}
+
+	protected boolean isState(int node, int tile, int hitpoints, long[] alive){
+		if(nodeTile[node]!=tile || nodeHitpoints[node]!=hitpoints){ return false; }
+		for(int w=0;w<stride;w++){
+			if(nodeAlive[node*stride+w]!=alive[w]){ return false; }
+		}
+		return true;
+	}
+
+	protected void loadNode(int node){
+		games.setHero(0, nodeTile[node], nodeHitpoints[node], nodeScore[node]);
+		int word = 0;
+		for(int k=0;k<KINDS.length;k++){
+			for(int w=0;w<games.getAliveWordCount(KINDS[k]);w++){ games.setAliveWord(0, KINDS[k], w, nodeAlive[node*stride+word++]); }
+		}
+	}
+
+	/** @return estimated total cost through a node: exact for goals, never an overestimate otherwise */
+	protected int getEstimate(int node){
+		int result = nodeCost[node];
+		if(nodeGoal[node]){
+			int left = 0;
+			for(int w=games.getAliveWordCount(PlayMap.OCCUPANT_MONSTER);w<stride;w++){ left += Long.bitCount(nodeAlive[node*stride+w]); }
+			result += collectPenalty*left;
+			result += Math.max(0, controllingChar.getStartingHitpoints()-nodeHitpoints[node])/hitpointsPerStep;
+		} else {
+			result += Math.max(0, exitField.getDistance(nodeTile[node])) + getLeftBehindEstimate(node);
+		}
+		return Math.min(MAX_COST, result);
+	}
+
+	/**
+	 * Any one reward or potion still alive costs at least the smaller of
+	 * collectPenalty and the detour through it on the way to the exit; the
+	 * detours of several of them can overlap, so only the largest is counted.
+	 */
+	protected int getLeftBehindEstimate(int node){
+		int exitDistance = exitField.getDistance(nodeTile[node]);
+		int x = nodeTile[node]/map.getMapSizeY();
+		int y = nodeTile[node]%map.getMapSizeY();
+		int offset = node*stride+games.getAliveWordCount(PlayMap.OCCUPANT_MONSTER);
+		int rewardWords = games.getAliveWordCount(PlayMap.OCCUPANT_REWARD);
+		int rewards = map.getRewardLength();
+		int result = 0;
+		for(int i=0;i<collectibleX.length && result<collectPenalty;i++){
+			int bit = i<rewards ? i : rewardWords*64+i-rewards;
+			if((nodeAlive[offset+(bit>>>6)] & (1L<<bit))==0){ continue; }
+			int distance = paths.getStepDistance(x, y, collectibleX[i], collectibleY[i]);
+			if(distance==-2){ continue; }	// no tables for this map: nothing is known
+			int price = distance<0 || collectibleExitDistance[i]<0 ? collectPenalty : Math.min(collectPenalty, distance+collectibleExitDistance[i]-exitDistance);
+			result = Math.max(result, price);
+		}
+		return result;
+	}
+
+	static long hashState(int tile, int hitpoints, long[] alive){
+		long result = tile*0x9E3779B97F4A7C15L + hitpoints;
+		for(int w=0;w<alive.length;w++){ result = (result ^ alive[w])*0xBF58476D1CE4E5B9L; }
+		return HashUtils.mix(result);
+	}
+
+	protected void storePlan(int target){
+		int length = 0;
+		for(int node=target;nodeParent[node]!=NO_NODE;node=nodeParent[node]){ length++; }
+		if(planActions.length<length || predictedAlive.length<(length+1)*stride){
+			planActions = new int[length];
+			predictedTile = new int[length+1];
+			predictedHitpoints = new int[length+1];
+			predictedAlive = new long[(length+1)*stride];
+		}
+		int step = length;
+		for(int node=target;node!=NO_NODE;node=nodeParent[node]){
+			if(step>0){ planActions[step-1] = nodeAction[node]; }
+			predictedTile[step] = nodeTile[node];
+			predictedHitpoints[step] = nodeHitpoints[node];
+			System.arraycopy(nodeAlive, node*stride, predictedAlive, step*stride, stride);
+			step--;
+		}
+		planLength = length;
+		planStep = 0;
+	}
+
+	/** Grows the node arrays (keeping stored nodes) and rebuilds the table at twice their size. */
+	protected void allocateNodes(int capacity){
+		boolean copy = nodeTile!=null;
+		nodeTile = copy ? Arrays.copyOf(nodeTile, capacity) : new int[capacity];
+		nodeHitpoints = copy ? Arrays.copyOf(nodeHitpoints, capacity) : new int[capacity];
+		nodeScore = copy ? Arrays.copyOf(nodeScore, capacity) : new int[capacity];
+		nodeCost = copy ? Arrays.copyOf(nodeCost, capacity) : new int[capacity];
+		nodeParent = copy ? Arrays.copyOf(nodeParent, capacity) : new int[capacity];
+		nodeAction = copy ? Arrays.copyOf(nodeAction, capacity) : new byte[capacity];
+		nodeGoal = copy ? Arrays.copyOf(nodeGoal, capacity) : new boolean[capacity];
+		nodeHash = copy ? Arrays.copyOf(nodeHash, capacity) : new long[capacity];
+		nodeAlive = copy ? Arrays.copyOf(nodeAlive, stride*capacity) : new long[stride*capacity];
+		heap = copy ? Arrays.copyOf(heap, Math.max(heap.length, capacity)) : new long[capacity];
+		table = new int[capacity*2];
+		Arrays.fill(table, NO_NODE);
+		for(int node=0;node<nodeCount;node++){
+			int slot = (int)nodeHash[node] & (table.length-1);
+			while(table[slot]!=NO_NODE){ slot = (slot+1) & (table.length-1); }
+			table[slot] = node;
+		}
+	}
+
+	protected void pushHeap(int node){
+		long key = ((long)getEstimate(node)<<44) | ((long)(MAX_COST-Math.min(MAX_COST,nodeCost[node]))<<24) | node;
+		if(heapSize==heap.length){ heap = Arrays.copyOf(heap, heap.length*2); }
+		int i = heapSize++;
+		while(i>0){
+			int parent = (i-1)>>1;
+			if(heap[parent]<=key){ break; }
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = key;
+	}
+
+	protected long popHeap(){
+		long result = heap[0];
+		long last = heap[--heapSize];
+		int i = 0;
+		while(true){
+			int child = 2*i+1;
+			if(child>=heapSize){ break; }
+			if(child+1<heapSize && heap[child+1]<heap[child]){ child++; }
+			if(heap[child]>=last){ break; }
+			heap[i] = heap[child];
+			i = child;
+		}
+		if(heapSize>0){ heap[i] = last; }
+		return result;
+	}
+
+	// ----------------------------------------------------------------
+	// STATISTICS
+	// ----------------------------------------------------------------
+
+	public int getPlanLength(){ return planLength; }
+	/** @return whether the current plan ends at an exit (rather than at the state closest to one) */
+	public boolean isPlanComplete(){ return planComplete; }
+	public int getPlans(){ return plans; }
+	public long getLastExpansions(){ return lastExpansions; }
+	public double getLastPlanMillis(){ return lastPlanNanos/1e6; }
+	public double getExpansionsPerSecond(){ return totalPlanNanos==0 ? 0 : totalExpansions*1e9/totalPlanNanos; }
+	public int getStoredStates(){ return nodeCount; }
+	/** @return bytes allocated for the node arrays, transposition table and heap, per state stored by the last plan */
+	public double getBytesPerState(){
+		if(nodeCount==0){ return 0; }
+		long bytes = 4L*(nodeTile.length+nodeHitpoints.length+nodeScore.length+nodeCost.length+nodeParent.length+table.length)
+				+ nodeAction.length + nodeGoal.length + 8L*(nodeHash.length+nodeAlive.length+heap.length);
+		return bytes/(double)nodeCount;
+	}
+}
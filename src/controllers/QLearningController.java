@@ -0,0 +1,71 @@
+package controllers;
+
+import dungeon.FlowField;
+import dungeon.play.BitBoard;
+import dungeon.play.GameCharacter;
+import dungeon.play.PlayMap;
+
+/**
+ * Plays the greedy policy of a trained QTable (see experiment.QLearningTrainer):
+ * each action is the legal move with the highest value in the row of the
+ * current state, which takes one hash probe. States the table has no row for
+ * follow the exit flow field instead.
+ * <p>
+ * A state key is a hash of the dungeon's content hash, the hero tile, the
+ * hero's hitpoints in HP_BUCKETS buckets and the alive bits of monsters,
+ * rewards and potions, so one table can hold the states of many dungeons.
+ */
+public class QLearningController extends Controller {
+	public final static int HP_BUCKETS = 8;
+
+	QTable table;
+	FlowField exitField;
+	PlayMap exitFieldSource;	// the map exitField was made for
+	int probes;
+	int misses;
+
+	public QLearningController(PlayMap map, GameCharacter controllingChar, QTable table){
+		this(map, controllingChar, table, "QLearningController");
+	}
+	public QLearningController(PlayMap map, GameCharacter controllingChar, QTable table, String label){
+		super(map,controllingChar,label);
+		this.table = table;
+	}
+
+	public QTable getTable(){ return table; }
+	public void setTable(QTable value){ table = value; }
+
+	public int getNextAction(){
+		if(map.isGameHalted()){ return PlayMap.IDLE; }
+		int x = map.getHero().getX();
+		int y = map.getHero().getY();
+		int slot = table.find(encodeState(map));
+		probes++;
+		if(slot!=QTable.NO_SLOT){ return table.getBestAction(slot, map.getLegalMoves(x,y)); }
+		misses++;
+		if(exitFieldSource!=map){
+			exitField = map.getExitFlowField();
+			exitFieldSource = map;
+		}
+		return exitField.getMove(x,y);
+	}
+
+	/** @return the key of the current state of a map; never 0 */
+	public static long encodeState(PlayMap map){
+		GameCharacter hero = map.getHero();
+		int bucket = Math.min(HP_BUCKETS-1, Math.max(0, hero.getHitpoints())*HP_BUCKETS/(hero.getStartingHitpoints()+1));
+		long result = map.getContentHash();
+		result = (result ^ map.getTileIndex(hero.getX(), hero.getY()))*0x9E3779B97F4A7C15L + bucket;
+		result = hashWords(result, map.getMonstersAlive());
+		result = hashWords(result, map.getRewardsAlive());
+		result = hashWords(result, map.getPotionsAlive());
+		return result==0 ? 1 : result;
+	}
+	static long hashWords(long hash, BitBoard bits){
+		for(int w=0;w<bits.getWordCount();w++){ hash = (hash ^ bits.getWord(w))*0xBF58476D1CE4E5B9L; }
+		return hash;
+	}
+
+	/** @return the share of decisions whose state had no row in the table */
+	public double getMissRate(){ return probes==0 ? 0 : misses/(double)probes; }
+}
@@ -0,0 +1,149 @@
+package controllers;
+
+import java.util.Arrays;
+
+import util.statics.HashUtils;
+
+/**
+ * Action values of a tabular learner: a map from long state keys to one
+ * float per move (UP, RIGHT, DOWN, LEFT), kept in flat arrays with open
+ * addressing so nothing is boxed. Key 0 marks an empty slot and cannot be
+ * stored; QLearningController.encodeState() never returns it. Rows that were
+ * never set read as 0.
+ * <p>
+ * Not thread-safe for writes. Any number of threads can read a table that
+ * nobody writes to.
+ */
+public class QTable {
+	public final static int NO_SLOT = -1;
+	final static int ACTIONS = 4;
+
+	long[] keys;
+	float[] values;		// [slot*ACTIONS+action]
+	int size;
+
+	public QTable(){
+		this(1<<10);
+	}
+	/** @param capacity expected number of states */
+	public QTable(int capacity){
+		allocate(Integer.highestOneBit(Math.max(16, capacity*2-1))<<1);
+	}
+
+	protected void allocate(int slots){
+		keys = new long[slots];
+		values = new float[slots*ACTIONS];
+		size = 0;
+	}
+
+	/** @return the slot of a key, or NO_SLOT if it has no row */
+	public int find(long key){
+		int mask = keys.length-1;
+		int slot = (int)HashUtils.mix(key) & mask;
+		while(keys[slot]!=0){
+			if(keys[slot]==key){ return slot; }
+			slot = (slot+1) & mask;
+		}
+		return NO_SLOT;
+	}
+
+	/** @return the slot of a key, with a new row of zeros if it had none; slots move when the table grows */
+	public int add(long key){
+		if((size+1)*2>keys.length){ grow(); }
+		int mask = keys.length-1;
+		int slot = (int)HashUtils.mix(key) & mask;
+		while(keys[slot]!=0){
+			if(keys[slot]==key){ return slot; }
+			slot = (slot+1) & mask;
+		}
+		keys[slot] = key;
+		size++;
+		return slot;
+	}
+
+	protected void grow(){
+		long[] oldKeys = keys;
+		float[] oldValues = values;
+		allocate(oldKeys.length*2);
+		for(int i=0;i<oldKeys.length;i++){
+			if(oldKeys[i]==0){ continue; }
+			int slot = add(oldKeys[i]);
+			System.arraycopy(oldValues, i*ACTIONS, values, slot*ACTIONS, ACTIONS);
+		}
+	}
+
+	/** Empties the table, keeping its capacity. */
+	public void clear(){
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, 0);
+		size = 0;
+	}
+
+	public float getValue(int slot, int action){ return slot==NO_SLOT ? 0 : values[slot*ACTIONS+action]; }
+	public void setValue(int slot, int action, float value){ values[slot*ACTIONS+action] = value; }
+	public void addValue(int slot, int action, float value){ values[slot*ACTIONS+action] += value; }
+
+	/** @return the move with the highest value among the bits of a legal move mask (lowest direction on ties), or PlayMap.IDLE if there are none */
+	public int getBestAction(int slot, int moves){
+		int result = -1;
+		float best = Float.NEGATIVE_INFINITY;
+		for(int action=0;action<ACTIONS;action++){
+			if((moves & (1<<action))==0){ continue; }
+			float value = getValue(slot, action);
+			if(value>best){
+				best = value;
+				result = action;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds what several learners changed in copies of this table, as if their
+	 * updates had been applied one after another. Learner i moved a value by
+	 * changes[i] with counts[i] updates of step size alpha, which is the share
+	 * 1-(1-alpha)^counts[i] of the way to its targets. The value moves the
+	 * share 1-(1-alpha)^N, N being all updates together, of the way to the
+	 * targets averaged over all updates, so the learners' updates add up
+	 * without overshooting when several of them moved the same value.
+	 * @param counts number of updates of each value, with the same keys as changes
+	 */
+	public void addUpdates(QTable[] changes, QTable[] counts, float alpha){
+		int rows = 0;
+		for(int t=0;t<counts.length;t++){ rows += counts[t].size(); }
+		QTable errors = new QTable(rows);		// sum over learners of updates times distance to the targets
+		QTable updates = new QTable(rows);
+		for(int t=0;t<changes.length;t++){
+			for(int i=0;i<counts[t].keys.length;i++){
+				long key = counts[t].keys[i];
+				if(key==0){ continue; }
+				int change = changes[t].find(key);
+				int errorSlot = errors.add(key);
+				int updateSlot = updates.add(key);
+				for(int action=0;action<ACTIONS;action++){
+					float n = counts[t].values[i*ACTIONS+action];
+					if(n==0){ continue; }
+					double share = 1-Math.pow(1-alpha, n);
+					errors.addValue(errorSlot, action, (float)(n*changes[t].getValue(change, action)/share));
+					updates.addValue(updateSlot, action, n);
+				}
+			}
+		}
+		for(int i=0;i<updates.keys.length;i++){
+			if(updates.keys[i]==0){ continue; }
+			int slot = add(updates.keys[i]);
+			int errorSlot = errors.find(updates.keys[i]);
+			for(int action=0;action<ACTIONS;action++){
+				float n = updates.values[i*ACTIONS+action];
+				if(n==0){ continue; }
+				double share = 1-Math.pow(1-alpha, n);
+				addValue(slot, action, (float)(share*errors.getValue(errorSlot, action)/n));
+			}
+		}
+	}
+
+	public int size(){ return size; }
+	public int getCapacity(){ return keys.length; }
+	/** @return bytes held by the key and value arrays */
+	public long getBytes(){ return 8L*keys.length + 4L*values.length; }
+}
@@ -1,175 +1,526 @@
-package dungeon;
-
-import java.util.Vector;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Arrays;
-
-import ai.pathfinder.*;
-
-import util.math2d.Matrix2D;
-import util.math2d.Point2D;
-import util.math2d.Vector2D;
-
-import libraries.PathLibrary;
-
-public class DungeonPaths {
-	Dungeon parent;
-	Pathfinder astar;
-	
-	Vector<ArrayList> exitPaths;
-	Vector<ArrayList> exit_monsterPaths;
-	Vector<ArrayList> monster_rewardPaths;
-	
-	int disconnectedPaths;
-	
-	public DungeonPaths(Dungeon parent){ 
-		this.parent = parent;
-	}
-	
-	public void init(){
-		astar = new Pathfinder();
-		int spacing = 1;
-		astar.corners=false;
-		astar.setCuboidNodes(parent.getMapSizeX(), parent.getMapSizeY(), spacing);
-		for(Object temp : astar.nodes){
-			Node n = (Node)temp;
-			n.walkable = parent.isPassable((int)(n.x), (int)(n.y));
-		}
-		astar.radialDisconnectUnwalkables();
-	}
-	
-	public Node findNode(int x, int y){
-		for(Object temp : astar.nodes){
-			Node n = (Node)temp;
-			if(n.x == x && n.y == y){ return n; }
-		}
-		return null;
-	}
-	
-	public void calculateAllPaths(){
-		if(astar==null){ init(); }
-		disconnectedPaths = 0;
-		exitPaths = new Vector<ArrayList>();
-		for(int i=0;i<parent.exits.size();i++){
-			for(int j=i+1;j<parent.exits.size();j++){
-				ArrayList path = this.getPath(parent.exits.get(j), parent.exits.get(i));
-				if(	path!=null ){ exitPaths.add(path); } else { disconnectedPaths++; }
-			}
-		}
-		exit_monsterPaths = new Vector<ArrayList>();
-		for(int i=0;i<parent.exits.size();i++){
-			for(int j=0;j<parent.monsters.size();j++){
-				ArrayList path = this.getPath(parent.monsters.get(j), parent.exits.get(i));
-				if(	path!=null ){ exit_monsterPaths.add(path); } else { disconnectedPaths++; }
-			}
-		}
-		monster_rewardPaths = new Vector<ArrayList>();
-		for(int i=0;i<parent.monsters.size();i++){
-			for(int j=0;j<parent.rewards.size();j++){
-				ArrayList path = this.getPath(parent.rewards.get(j), parent.monsters.get(i));
-				if(	path!=null ){ monster_rewardPaths.add(path); } else { disconnectedPaths++; }
-			}
-		}
-	}
-	
-	public Vector<ArrayList> getMonster_rewardPaths(){ return monster_rewardPaths; }
-	public Vector<ArrayList> getExit_monsterPaths(){ return exit_monsterPaths; }
-	public Vector<ArrayList> getExitPaths(){ return exitPaths; }
-	public int getMonster_rewardPathLength(){ return monster_rewardPaths.size(); }
-	public int getExit_monsterPathLength(){ return exit_monsterPaths.size(); }
-	public int getExitPathLength(){ return exitPaths.size(); }
-	public int getDisconnectedPaths(){ return disconnectedPaths; }
-	
-	public Pathfinder getAStar(){ return astar; }
-	
-	public Vector<ArrayList> getRewardsPathsFromMonster(int monsterIndex){
-		Vector<ArrayList> result = new Vector<ArrayList>();
-		if(monsterIndex<0 || monsterIndex>=parent.monsters.size()){ 
-			System.out.println("Base index out of bounds");
-			return result;
-		}
-		int monsterX = (int)(parent.monsters.get(monsterIndex).x);
-		int monsterY = (int)(parent.monsters.get(monsterIndex).y);
-		for(int i=0;i<monster_rewardPaths.size();i++){
-			if(PathLibrary.hasStart(monster_rewardPaths.get(i),monsterX,monsterY) || PathLibrary.hasEnd(monster_rewardPaths.get(i),monsterX,monsterY)) {
-				result.add(monster_rewardPaths.get(i));
-			}
-		}
-		return result;
-	}
-	
-	public Vector<ArrayList> getRewardsPathsFromReward(int rewardIndex){
-		Vector<ArrayList> result = new Vector<ArrayList>();
-		if(rewardIndex<0 || rewardIndex>=parent.rewards.size()){ 
-			System.out.println("Resource index out of bounds");
-			return result;
-		}
-		int rewardX = (int)(parent.rewards.get(rewardIndex).x);
-		int rewardY = (int)(parent.rewards.get(rewardIndex).y);
-		for(int i=0;i<monster_rewardPaths.size();i++){
-			if(PathLibrary.hasStart(monster_rewardPaths.get(i),rewardX,rewardY) || PathLibrary.hasEnd(monster_rewardPaths.get(i),rewardX,rewardY)) {
-				result.add(monster_rewardPaths.get(i));
-			}
-		}
-		return result;
-	}
-
-	public ArrayList getRewardPathFromMonster(int rewardIndex, int monsterIndex){
-		if(monsterIndex<0 || monsterIndex>=parent.monsters.size()){ 
-			System.out.println("Monster index out of bounds");
-			return null;
-		}
-		if(rewardIndex<0 || rewardIndex>=parent.rewards.size()){ 
-			System.out.println("Reward index out of bounds");
-			return null;
-		}
-		int monsterX = (int)(parent.monsters.get(monsterIndex).x);
-		int monsterY = (int)(parent.monsters.get(monsterIndex).y);
-		int rewardX = (int)(parent.rewards.get(rewardIndex).x);
-		int rewardY = (int)(parent.rewards.get(rewardIndex).y);
-		for(int i=0;i<monster_rewardPaths.size();i++){
-			if(PathLibrary.hasStart(monster_rewardPaths.get(i),monsterX,monsterY) && PathLibrary.hasEnd(monster_rewardPaths.get(i),rewardX,rewardY)) {
-				return monster_rewardPaths.get(i);
-			} else if(PathLibrary.hasStart(monster_rewardPaths.get(i),rewardX,rewardY) && PathLibrary.hasEnd(monster_rewardPaths.get(i),monsterX,monsterY)) {
-				return monster_rewardPaths.get(i);
-			}
-		}
-		return null;
-	}
-
-	public ArrayList getPath(Point2D p1, Point2D p2){
-		return getPath((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y));
-	}
-	public ArrayList getPath(Point2D p1, int x2,int y2){
-		return getPath((int)(p1.x),(int)(p1.y),x2,y2);
-	}
-	public ArrayList getPath(int x1,int y1, Point2D p2){
-		return getPath(x1,y1,(int)(p2.x),(int)(p2.y));
-	}
-	public ArrayList getPath(int x1,int y1,int x2,int y2){ 
-		ArrayList result = astar.aStar(findNode(x1,y1),findNode(x2,y2));
-		if(PathLibrary.hasStart(result,x2,y2) && PathLibrary.hasEnd(result,x1,y1)){ 
-			return result;
-		}
-		return null; 
-	}
-	
-	public double getDistance(Point2D p1, Point2D p2){
-		return getDistance((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y));
-	}
-	public double getDistance(Point2D p1, int x2,int y2){
-		return getDistance((int)(p1.x),(int)(p1.y),x2,y2);
-	}
-	public double getDistance(int x1,int y1, Point2D p2){
-		return getDistance(x1,y1,(int)(p2.x),(int)(p2.y));
-	}
-	public double getDistance(int x1,int y1,int x2,int y2){ 
-		ArrayList result = astar.aStar(findNode(x1,y1),findNode(x2,y2));
-		if(PathLibrary.hasStart(result,x2,y2) && PathLibrary.hasEnd(result,x1,y1)){ 
-			return PathLibrary.calculateDistance(result);
-		}
-		return Double.NaN; 
-	}
+package dungeon;
+
+import java.util.Vector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.LinkedList;
+import java.util.Arrays;
+
+import ai.pathfinder.*;
+
+import util.math2d.Matrix2D;
+import util.math2d.Point2D;
+import util.math2d.Vector2D;
+
+import libraries.GridGraph;
+import libraries.GridPathfinder;
+import libraries.HierarchicalGraph;
+import libraries.PathLibrary;
+import libraries.TilePath;
+
+public class DungeonPaths {
+	Dungeon parent;
+	GridGraph graph;
+	Pathfinder astar;	// only built if asked for through getAStar() or findNode()
+	Node[] nodeTable;	// nodes of astar by grid tile (x*sizeY+y)
+	
+	// path sets, each built on first use and then kept; volatile so that 
+	// clones on other threads see them once they are complete. Each path 
+	// starts at the outer point, as the Node lists of the old path sets did
+	volatile Vector<TilePath> exitPaths;
+	volatile Vector<TilePath> exit_monsterPaths;
+	volatile Vector<TilePath> monster_rewardPaths;
+	TilePath[][] monster_rewardTable;	// [monster][reward], null where disconnected; set before monster_rewardPaths
+	
+	volatile int[] component;	// connected component of each grid tile, -1 if impassable
+	int disconnectedPaths;
+	volatile boolean tablesBuilt;
+	
+	// hierarchical mode (HPA*) for large maps, see getTilePath() and getDistance()
+	public final static int HIERARCHICAL_MIN_TILES = 128*128;
+	int hierarchicalMode = -1;	// -1 decides by map size, 0 off, 1 on
+	volatile HierarchicalGraph hierarchy;
+	
+	// flow fields by a hash of their goal set, most recently used last
+	public final static int MAX_FLOW_FIELDS = 256;
+	LinkedHashMap<Long,FlowField> flowFields = new LinkedHashMap<Long,FlowField>(16, 0.75f, true){
+		protected boolean removeEldestEntry(Map.Entry<Long,FlowField> eldest){ return size()>MAX_FLOW_FIELDS; }
+	};
+	
+	// all-pairs shortest paths over the passable tiles, built by buildDistanceTables();
+	// rows and columns are numbered by passable tile, not by grid tile
+	public final static int MAX_TABLE_TILES = 2048;	// beyond this, queries fall back to A*
+	final static int[] STEP_X = { 0, 1, 0, -1 };	// in the order of PlayMap.UP, RIGHT, DOWN, LEFT
+	final static int[] STEP_Y = { -1, 0, 1, 0 };
+	int[] passableIndex;	// grid tile -> row, or -1 if impassable
+	int[] passableTile;		// row -> grid tile
+	int passableCount;
+	short[] distanceTable;	// [from*passableCount+to] in steps, -1 if unreachable
+	byte[] nextStepTable;	// [from*passableCount+to] direction of the first step, -1 if none
+	
+	public DungeonPaths(Dungeon parent){ 
+		this.parent = parent;
+	}
+	
+	public void init(){
+		boolean[][] passable = new boolean[parent.getMapSizeX()][parent.getMapSizeY()];
+		for(int x=0;x<passable.length;x++){
+			for(int y=0;y<passable[x].length;y++){ passable[x][y] = parent.isPassable(x,y); }
+		}
+		graph = new GridGraph(passable, false);
+		astar = null;
+		hierarchy = null;
+		component = null;
+		synchronized(flowFields){ flowFields.clear(); }
+	}
+	
+	protected void initAStar(){
+		astar = new Pathfinder();
+		int spacing = 1;
+		astar.corners=false;
+		astar.setCuboidNodes(parent.getMapSizeX(), parent.getMapSizeY(), spacing);
+		nodeTable = PathLibrary.indexNodes(astar, parent.getMapSizeX(), parent.getMapSizeY());
+		for(Object temp : astar.nodes){
+			Node n = (Node)temp;
+			n.walkable = parent.isPassable((int)(n.x), (int)(n.y));
+		}
+		astar.radialDisconnectUnwalkables();
+	}
+	
+	public Node findNode(int x, int y){
+		if(astar==null){ initAStar(); }
+		if(!parent.isWithinBounds(x,y)){ return null; }
+		return nodeTable[parent.getTileIndex(x,y)];
+	}
+	
+	/**
+	 * Runs a breadth-first search from every passable tile and stores the 
+	 * distance and the first step of a shortest path for every pair of tiles. 
+	 * Skipped (tables left null) on maps with more than MAX_TABLE_TILES passable tiles.
+	 * Called on the first query that needs the tables.
+	 */
+	public synchronized void buildDistanceTables(){
+		int sizeX = parent.getMapSizeX();
+		int sizeY = parent.getMapSizeY();
+		passableIndex = new int[sizeX*sizeY];
+		passableCount = 0;
+		for(int tile=0;tile<passableIndex.length;tile++){
+			passableIndex[tile] = parent.isPassable(tile/sizeY, tile%sizeY) ? passableCount++ : -1;
+		}
+		passableTile = new int[passableCount];
+		for(int tile=0;tile<passableIndex.length;tile++){
+			if(passableIndex[tile]>=0){ passableTile[passableIndex[tile]] = tile; }
+		}
+		if(passableCount>MAX_TABLE_TILES){
+			distanceTable = null;
+			nextStepTable = null;
+			tablesBuilt = true;
+			return;
+		}
+		distanceTable = new short[passableCount*passableCount];
+		nextStepTable = new byte[passableCount*passableCount];
+		Arrays.fill(distanceTable, (short)-1);
+		Arrays.fill(nextStepTable, (byte)-1);
+		int[] queue = new int[passableCount];
+		for(int target=0;target<passableCount;target++){
+			// search outwards from the target; the step back towards the tile 
+			// a node was reached from is the first step of its path to the target
+			distanceTable[target*passableCount+target] = 0;
+			queue[0] = target;
+			int head = 0;
+			int tail = 1;
+			while(head<tail){
+				int current = queue[head++];
+				int tile = passableTile[current];
+				int x = tile/sizeY;
+				int y = tile%sizeY;
+				short distance = distanceTable[current*passableCount+target];
+				for(int direction=0;direction<4;direction++){
+					int nx = x+STEP_X[direction];
+					int ny = y+STEP_Y[direction];
+					if(nx<0 || ny<0 || nx>=sizeX || ny>=sizeY){ continue; }
+					int next = passableIndex[nx*sizeY+ny];
+					if(next<0 || distanceTable[next*passableCount+target]>=0){ continue; }
+					distanceTable[next*passableCount+target] = (short)(distance+1);
+					nextStepTable[next*passableCount+target] = (byte)((direction+2)%4);
+					queue[tail++] = next;
+				}
+			}
+		}
+		tablesBuilt = true;
+	}
+	
+	protected void ensureDistanceTables(){
+		if(tablesBuilt){ return; }
+		synchronized(this){
+			if(!tablesBuilt){ buildDistanceTables(); }
+		}
+	}
+	
+	public boolean hasDistanceTables(){ 
+		ensureDistanceTables();
+		return distanceTable!=null; 
+	}
+	
+	/** @return row of (x,y) in the distance tables, or -1 if it has none */
+	protected int getTableIndex(int x, int y){
+		ensureDistanceTables();
+		if(distanceTable==null || !parent.isWithinBounds(x,y)){ return -1; }
+		return passableIndex[x*parent.getMapSizeY()+y];
+	}
+	
+	/** 
+	 * @return the number of steps of a shortest path between two tiles, -1 if 
+	 * there is none, or -2 if either tile is outside the tables (a wall, off 
+	 * the map, or a map too large for tables)
+	 */
+	public int getStepDistance(int x1,int y1,int x2,int y2){
+		int from = getTableIndex(x1,y1);
+		int to = getTableIndex(x2,y2);
+		if(from<0 || to<0){ return -2; }
+		return distanceTable[from*passableCount+to];
+	}
+	
+	/** @return direction (PlayMap.UP, RIGHT, DOWN or LEFT) of the first step from (x1,y1) towards (x2,y2), or -1 */
+	public int getNextStep(int x1,int y1,int x2,int y2){
+		int from = getTableIndex(x1,y1);
+		int to = getTableIndex(x2,y2);
+		if(from<0 || to<0){ return -1; }
+		return nextStepTable[from*passableCount+to];
+	}
+	
+	/** 
+	 * Follows the next-step table, so it takes time proportional to the path length.
+	 * @return the grid tiles (x*sizeY+y) of a shortest path from (x1,y1) to (x2,y2), 
+	 * both included, or null if there is none or the tables do not cover them
+	 */
+	public int[] getShortestPath(int x1,int y1,int x2,int y2){
+		int distance = getStepDistance(x1,y1,x2,y2);
+		if(distance<0){ return null; }
+		int sizeY = parent.getMapSizeY();
+		int[] result = new int[distance+1];
+		int x = x1;
+		int y = y1;
+		int to = getTableIndex(x2,y2);
+		result[0] = x*sizeY+y;
+		for(int i=1;i<=distance;i++){
+			int direction = nextStepTable[passableIndex[x*sizeY+y]*passableCount+to];
+			x += STEP_X[direction];
+			y += STEP_Y[direction];
+			result[i] = x*sizeY+y;
+		}
+		return result;
+	}
+	
+	/**
+	 * Prepares the paths between exits, monsters and rewards. The paths 
+	 * themselves (and the distance tables) are only searched for when first 
+	 * asked for; the number of disconnected pairs is counted straight away 
+	 * from the connected components of the map.
+	 */
+	public void calculateAllPaths(){
+		if(graph==null){ init(); }
+		synchronized(this){
+			tablesBuilt = false;
+			exitPaths = null;
+			exit_monsterPaths = null;
+			monster_rewardPaths = null;
+			monster_rewardTable = null;
+		}
+		labelComponents();
+		disconnectedPaths = 0;
+		for(int i=0;i<parent.exits.size();i++){
+			for(int j=i+1;j<parent.exits.size();j++){
+				if(!isConnected(parent.exits.get(j), parent.exits.get(i))){ disconnectedPaths++; }
+			}
+		}
+		for(int i=0;i<parent.exits.size();i++){
+			for(int j=0;j<parent.monsters.size();j++){
+				if(!isConnected(parent.monsters.get(j), parent.exits.get(i))){ disconnectedPaths++; }
+			}
+		}
+		for(int i=0;i<parent.monsters.size();i++){
+			for(int j=0;j<parent.rewards.size();j++){
+				if(!isConnected(parent.rewards.get(j), parent.monsters.get(i))){ disconnectedPaths++; }
+			}
+		}
+	}
+	
+	/** Numbers the groups of passable tiles that can reach each other. */
+	protected void labelComponents(){
+		int[] result = new int[graph.getTileCount()];
+		Arrays.fill(result, -1);
+		int[] queue = new int[result.length];
+		int count = 0;
+		for(int tile=0;tile<result.length;tile++){
+			if(result[tile]>=0 || !graph.isWalkable(tile)){ continue; }
+			result[tile] = count;
+			queue[0] = tile;
+			int head = 0;
+			int tail = 1;
+			while(head<tail){
+				int current = queue[head++];
+				for(int l=graph.getLinkCount(current)-1;l>=0;l--){
+					int next = graph.getLink(current,l);
+					if(result[next]<0){
+						result[next] = count;
+						queue[tail++] = next;
+					}
+				}
+			}
+			count++;
+		}
+		component = result;
+	}
+	
+	/** @return the connected component of (x,y), or -1 if it is impassable */
+	public int getComponent(int x, int y){
+		if(component==null){ labelComponents(); }
+		if(!graph.isWithinBounds(x,y)){ return -1; }
+		return component[graph.getTile(x,y)];
+	}
+	
+	public boolean isConnected(Point2D p1, Point2D p2){
+		return isConnected((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y));
+	}
+	public boolean isConnected(int x1,int y1,int x2,int y2){
+		int component1 = getComponent(x1,y1);
+		return component1>=0 && component1==getComponent(x2,y2);
+	}
+	
+	/**
+	 * @param goalTiles grid tiles (x*sizeY+y), in any order
+	 * @return the flow field towards the nearest of the goal tiles; fields are 
+	 * kept for the MAX_FLOW_FIELDS most recently used goal sets
+	 */
+	public FlowField getFlowField(int... goalTiles){
+		if(graph==null){ init(); }
+		int[] sortedGoals = goalTiles.clone();
+		Arrays.sort(sortedGoals);
+		long hash = sortedGoals.length;
+		for(int i=0;i<sortedGoals.length;i++){ hash = hash*31+sortedGoals[i]; }
+		Long key = Long.valueOf(hash);
+		synchronized(flowFields){
+			FlowField cached = flowFields.get(key);
+			if(cached!=null && cached.hasGoals(sortedGoals)){ return cached; }
+		}
+		FlowField result = new FlowField(graph, sortedGoals);
+		synchronized(flowFields){ flowFields.put(key, result); }
+		return result;
+	}
+	public FlowField getFlowField(Point2D goal){
+		return getFlowField(parent.getTileIndex((int)(goal.x), (int)(goal.y)));
+	}
+	
+	/** @return the paths that exist between each inner point and each outer point, grouped by outer point */
+	protected Vector<TilePath> calculatePaths(Vector<Point2D> outer, Vector<Point2D> inner, boolean distinctPairs){
+		Vector<TilePath> result = new Vector<TilePath>();
+		for(int i=0;i<outer.size();i++){
+			for(int j=distinctPairs ? i+1 : 0;j<inner.size();j++){
+				// searched from the inner point, then turned to start at the outer one
+				int[] tiles = getTilePath((int)(inner.get(j).x),(int)(inner.get(j).y),(int)(outer.get(i).x),(int)(outer.get(i).y));
+				if(	tiles!=null ){ result.add(new TilePath(graph, tiles).reverse()); }
+			}
+		}
+		return result;
+	}
+	
+	/** @return the path between every outer point and every inner point, as [outer][inner], null where there is none */
+	protected TilePath[][] calculatePathTable(Vector<Point2D> outer, Vector<Point2D> inner){
+		TilePath[][] result = new TilePath[outer.size()][inner.size()];
+		for(int i=0;i<outer.size();i++){
+			for(int j=0;j<inner.size();j++){
+				int[] tiles = getTilePath((int)(inner.get(j).x),(int)(inner.get(j).y),(int)(outer.get(i).x),(int)(outer.get(i).y));
+				if(	tiles!=null ){ result[i][j] = new TilePath(graph, tiles).reverse(); }
+			}
+		}
+		return result;
+	}
+	
+	public Vector<TilePath> getMonster_rewardTilePaths(){ 
+		Vector<TilePath> result = monster_rewardPaths;
+		if(result==null){
+			synchronized(this){
+				if(monster_rewardPaths==null){ 
+					// the same paths as calculatePaths(monsters, rewards, false), listed by monster and then reward
+					TilePath[][] table = calculatePathTable(parent.monsters, parent.rewards);
+					Vector<TilePath> paths = new Vector<TilePath>();
+					for(int i=0;i<table.length;i++){
+						for(int j=0;j<table[i].length;j++){
+							if(table[i][j]!=null){ paths.add(table[i][j]); }
+						}
+					}
+					monster_rewardTable = table;
+					monster_rewardPaths = paths;
+				}
+				result = monster_rewardPaths;
+			}
+		}
+		return result; 
+	}
+	/** @return the monster-reward paths by [monsterIndex][rewardIndex], null where there is none; do not modify */
+	public TilePath[][] getMonster_rewardTable(){
+		getMonster_rewardTilePaths();
+		return monster_rewardTable;
+	}
+	public Vector<TilePath> getExit_monsterTilePaths(){ 
+		Vector<TilePath> result = exit_monsterPaths;
+		if(result==null){
+			synchronized(this){
+				if(exit_monsterPaths==null){ exit_monsterPaths = calculatePaths(parent.exits, parent.monsters, false); }
+				result = exit_monsterPaths;
+			}
+		}
+		return result; 
+	}
+	public Vector<TilePath> getExitTilePaths(){ 
+		Vector<TilePath> result = exitPaths;
+		if(result==null){
+			synchronized(this){
+				if(exitPaths==null){ exitPaths = calculatePaths(parent.exits, parent.exits, true); }
+				result = exitPaths;
+			}
+		}
+		return result; 
+	}
+	/** The Node list forms below are converted from the tile paths on every call. */
+	public Vector<ArrayList> getMonster_rewardPaths(){ return toNodePaths(getMonster_rewardTilePaths()); }
+	public Vector<ArrayList> getExit_monsterPaths(){ return toNodePaths(getExit_monsterTilePaths()); }
+	public Vector<ArrayList> getExitPaths(){ return toNodePaths(getExitTilePaths()); }
+	protected static Vector<ArrayList> toNodePaths(Vector<TilePath> paths){
+		Vector<ArrayList> result = new Vector<ArrayList>(paths.size());
+		for(int i=0;i<paths.size();i++){ result.add(paths.get(i).toNodePath()); }
+		return result;
+	}
+	public int getMonster_rewardPathLength(){ return getMonster_rewardTilePaths().size(); }
+	public int getExit_monsterPathLength(){ return getExit_monsterTilePaths().size(); }
+	public int getExitPathLength(){ return getExitTilePaths().size(); }
+	public int getDisconnectedPaths(){ return disconnectedPaths; }
+	
+	public GridGraph getGraph(){ return graph; }
+	public Pathfinder getAStar(){ 
+		if(astar==null){ initAStar(); }
+		return astar; 
+	}
+	
+	public Vector<ArrayList> getRewardsPathsFromMonster(int monsterIndex){
+		return toNodePaths(getRewardTilePathsFromMonster(monsterIndex));
+	}
+	public Vector<TilePath> getRewardTilePathsFromMonster(int monsterIndex){
+		Vector<TilePath> result = new Vector<TilePath>();
+		if(monsterIndex<0 || monsterIndex>=parent.monsters.size()){ 
+			System.out.println("Base index out of bounds");
+			return result;
+		}
+		TilePath[][] table = getMonster_rewardTable();
+		if(monsterIndex>=table.length){ return result; }	// added since the paths were found
+		TilePath[] row = table[monsterIndex];
+		for(int j=0;j<row.length;j++){
+			if(row[j]!=null){ result.add(row[j]); }
+		}
+		return result;
+	}
+	
+	public Vector<ArrayList> getRewardsPathsFromReward(int rewardIndex){
+		return toNodePaths(getRewardTilePathsFromReward(rewardIndex));
+	}
+	public Vector<TilePath> getRewardTilePathsFromReward(int rewardIndex){
+		Vector<TilePath> result = new Vector<TilePath>();
+		if(rewardIndex<0 || rewardIndex>=parent.rewards.size()){ 
+			System.out.println("Resource index out of bounds");
+			return result;
+		}
+		TilePath[][] table = getMonster_rewardTable();
+		for(int i=0;i<table.length;i++){
+			if(rewardIndex<table[i].length && table[i][rewardIndex]!=null){ result.add(table[i][rewardIndex]); }
+		}
+		return result;
+	}
+
+	public ArrayList getRewardPathFromMonster(int rewardIndex, int monsterIndex){
+		TilePath result = getRewardTilePathFromMonster(rewardIndex, monsterIndex);
+		return result==null ? null : result.toNodePath();
+	}
+	public TilePath getRewardTilePathFromMonster(int rewardIndex, int monsterIndex){
+		if(monsterIndex<0 || monsterIndex>=parent.monsters.size()){ 
+			System.out.println("Monster index out of bounds");
+			return null;
+		}
+		if(rewardIndex<0 || rewardIndex>=parent.rewards.size()){ 
+			System.out.println("Reward index out of bounds");
+			return null;
+		}
+		TilePath[][] table = getMonster_rewardTable();
+		if(monsterIndex>=table.length || rewardIndex>=table[monsterIndex].length){ return null; }
+		return table[monsterIndex][rewardIndex];
+	}
+
+	public ArrayList getPath(Point2D p1, Point2D p2){
+		return getPath((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y));
+	}
+	public ArrayList getPath(Point2D p1, int x2,int y2){
+		return getPath((int)(p1.x),(int)(p1.y),x2,y2);
+	}
+	public ArrayList getPath(int x1,int y1, Point2D p2){
+		return getPath(x1,y1,(int)(p2.x),(int)(p2.y));
+	}
+	public ArrayList getPath(int x1,int y1,int x2,int y2){ 
+		return PathLibrary.toNodePath(getTilePath(x1,y1,x2,y2), graph);
+	}
+	
+	/** 
+	 * @return the grid tiles (x*sizeY+y) of the A* path from (x1,y1) to (x2,y2), 
+	 * both included, or null; in hierarchical mode, a near-shortest path 
+	 */
+	public int[] getTilePath(int x1,int y1,int x2,int y2){
+		if(graph==null){ init(); }
+		if(!graph.isWithinBounds(x1,y1) || !graph.isWithinBounds(x2,y2)){ return null; }
+		if(!isConnected(x1,y1,x2,y2)){ return null; }
+		if(isHierarchical()){ return getHierarchy().getPath(graph.getTile(x1,y1), graph.getTile(x2,y2)); }
+		return GridPathfinder.aStar(graph, graph.getTile(x1,y1), graph.getTile(x2,y2));
+	}
+	
+	/** Hierarchical mode is on by default for maps of HIERARCHICAL_MIN_TILES tiles or more. */
+	public void setHierarchical(boolean value){ hierarchicalMode = value ? 1 : 0; }
+	public boolean isHierarchical(){ 
+		if(hierarchicalMode<0){ return parent.getMapSizeX()*parent.getMapSizeY()>=HIERARCHICAL_MIN_TILES; }
+		return hierarchicalMode==1; 
+	}
+	/** @return the abstract graph used in hierarchical mode, built on first use */
+	public HierarchicalGraph getHierarchy(){
+		HierarchicalGraph result = hierarchy;
+		if(result==null){
+			synchronized(this){
+				if(hierarchy==null){ hierarchy = new HierarchicalGraph(graph); }
+				result = hierarchy;
+			}
+		}
+		return result;
+	}
+	
+	public double getDistance(Point2D p1, Point2D p2){
+		return getDistance((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y));
+	}
+	public double getDistance(Point2D p1, int x2,int y2){
+		return getDistance((int)(p1.x),(int)(p1.y),x2,y2);
+	}
+	public double getDistance(int x1,int y1, Point2D p2){
+		return getDistance(x1,y1,(int)(p2.x),(int)(p2.y));
+	}
+	public double getDistance(int x1,int y1,int x2,int y2){ 
+		int steps = getStepDistance(x1,y1,x2,y2);
+		if(steps>=0){ return steps; }
+		if(steps==-1){ return Double.NaN; }
+		if(isHierarchical()){
+			if(graph==null){ init(); }
+			if(!graph.isWithinBounds(x1,y1) || !graph.isWithinBounds(x2,y2) || !isConnected(x1,y1,x2,y2)){ return Double.NaN; }
+			int distance = getHierarchy().getDistance(graph.getTile(x1,y1), graph.getTile(x2,y2));
+			return distance>=0 ? distance : Double.NaN;
+		}
+		int[] result = getTilePath(x1,y1,x2,y2);
+		if(result!=null){ return result.length-1; }
+		return Double.NaN; 
+	}
 }
\ No newline at end of file
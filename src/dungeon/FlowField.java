@@ -0,0 +1,95 @@
+package dungeon;
+
+import java.util.Arrays;
+
+import libraries.GridGraph;
+
+/**
+ * The number of steps from every tile to the nearest of a set of goal tiles,
+ * and the move to make from each tile, found with one breadth-first search
+ * outwards from the goals. Only walls are taken into account, so a field can
+ * be shared by every PlayMap of the same dungeon; get one through
+ * {@link DungeonPaths#getFlowField(int...)}, which keeps them.
+ * The move of a tile is the first of UP, RIGHT, DOWN and LEFT that leads to a
+ * neighbour closest to a goal, which is how PathfindingController has always
+ * chosen; goal tiles have a move too (towards the nearest other tile).
+ */
+public class FlowField {
+	public final static int UNREACHABLE = -1;
+	final static int[] STEP_X = { 0, 1, 0, -1 };	// in the order of PlayMap.UP, RIGHT, DOWN, LEFT
+	final static int[] STEP_Y = { -1, 0, 1, 0 };
+
+	final GridGraph graph;
+	final int[] goals;		// sorted grid tiles (x*sizeY+y)
+	final int[] distance;	// by grid tile, UNREACHABLE if no goal can be reached
+	final byte[] move;		// by grid tile, -1 if no move leads closer
+
+	FlowField(GridGraph graph, int[] sortedGoals){
+		this.graph = graph;
+		this.goals = sortedGoals;
+		int tiles = graph.getTileCount();
+		distance = new int[tiles];
+		move = new byte[tiles];
+		Arrays.fill(distance, UNREACHABLE);
+		int[] queue = new int[tiles];
+		int head = 0;
+		int tail = 0;
+		for(int i=0;i<goals.length;i++){
+			int goal = goals[i];
+			if(goal>=0 && goal<tiles && graph.isWalkable(goal) && distance[goal]<0){
+				distance[goal] = 0;
+				queue[tail++] = goal;
+			}
+		}
+		while(head<tail){
+			int current = queue[head++];
+			for(int l=graph.getLinkCount(current)-1;l>=0;l--){
+				int next = graph.getLink(current,l);
+				if(distance[next]<0){
+					distance[next] = distance[current]+1;
+					queue[tail++] = next;
+				}
+			}
+		}
+		int sizeY = graph.getSizeY();
+		for(int tile=0;tile<tiles;tile++){
+			move[tile] = -1;
+			if(!graph.isWalkable(tile)){ continue; }
+			int x = tile/sizeY;
+			int y = tile%sizeY;
+			int best = Integer.MAX_VALUE;
+			for(int direction=0;direction<4;direction++){
+				int nx = x+STEP_X[direction];
+				int ny = y+STEP_Y[direction];
+				if(!graph.isWalkable(nx,ny)){ continue; }
+				int nextDistance = distance[nx*sizeY+ny];
+				if(nextDistance>=0 && nextDistance<best){
+					best = nextDistance;
+					move[tile] = (byte)direction;
+				}
+			}
+		}
+	}
+
+	public GridGraph getGraph(){ return graph; }
+	/** @return the goal tiles (x*sizeY+y), sorted; do not modify */
+	public int[] getGoals(){ return goals; }
+
+	/** @return steps from (x,y) to the nearest goal, or UNREACHABLE */
+	public int getDistance(int x, int y){
+		if(!graph.isWithinBounds(x,y)){ return UNREACHABLE; }
+		return distance[graph.getTile(x,y)];
+	}
+	public int getDistance(int tile){ return distance[tile]; }
+
+	/** @return direction (PlayMap.UP, RIGHT, DOWN or LEFT) of the best move from (x,y), or -1 if none leads to a goal */
+	public int getMove(int x, int y){
+		if(!graph.isWithinBounds(x,y)){ return -1; }
+		return move[graph.getTile(x,y)];
+	}
+	public int getMove(int tile){ return move[tile]; }
+
+	public boolean isGoal(int x, int y){ return getDistance(x,y)==0; }
+
+	boolean hasGoals(int[] sortedGoals){ return Arrays.equals(goals, sortedGoals); }
+}
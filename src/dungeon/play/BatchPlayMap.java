@@ -0,0 +1,367 @@
+package dungeon.play;
+
+import java.util.stream.IntStream;
+
+/**
+ * Plays N games of the same dungeon in lockstep. The state of every game is
+ * kept in flat primitive arrays (struct of arrays) instead of one PlayMap
+ * object graph per game, and a tick advances all games with one action each.
+ * The rules are the ones of {@link PlayMap#updateGame(int)}: hero position,
+ * HP, score, entity liveness, visit counters, explored tiles, actionsTaken and
+ * the halted flag all evolve exactly as in a PlayMap given the same actions.
+ * Event logs and the viewport are not kept.
+ * <p>
+ * Everything static (moves, occupants, exits, visibility) is precomputed per
+ * tile from the template map, so a step is a handful of array reads.
+ */
+public class BatchPlayMap {
+	final int games;
+	final int tiles;
+	final int tileWords;
+	final int monsterCount;
+	final int rewardCount;
+	final int potionCount;
+	final int monsterWords;
+	final int rewardWords;
+	final int potionWords;
+	final int mapSizeY;
+
+	// static, per tile (x*mapSizeY+y)
+	final int[] moveTarget;		// [tile*4+direction], -1 if the move is blocked
+	final byte[] legalMoves;	// bit d is set if moveTarget[tile*4+d] is not -1
+	final int[] occupant;		// as Dungeon.getOccupant()
+	final boolean[] isExit;		// exits other than the entrance
+	final long[] visibleFrom;	// [tile*tileWords+word], tiles seen with the hero on tile
+
+	// static, per entity
+	final int[] rewardBonus;
+	final int[] potionBonus;
+	final int[] potionHealing;
+	final boolean[] potionOverheal;
+	final int heroStartingHitpoints;
+
+	// per game
+	final int[] heroTile;
+	final int[] heroHitpoints;
+	final int[] heroScore;
+	final int[] actionsTaken;
+	final boolean[] halted;
+	final int[] monsterDamage;		// [game*monsterCount+monster]
+	final long[] monstersAlive;		// [game*monsterWords+word]
+	final long[] rewardsAlive;
+	final long[] potionsAlive;
+	final long[] explored;			// [game*tileWords+word]
+	final long[] visitedTiles;
+	final int[] visited;			// [game*tiles+tile]
+
+	// state every game starts from, for resetGame()
+	final PlayMap template;
+
+	/**
+	 * Creates N games, all in the current state of the template.
+	 * The template itself is not modified.
+	 */
+	public BatchPlayMap(PlayMap template, int games){
+		this.games = games;
+		this.template = template.clone();
+		this.mapSizeY = template.getMapSizeY();
+		this.tiles = template.getMapSizeX()*template.getMapSizeY();
+		this.tileWords = template.explored.getWordCount();
+		this.monsterCount = template.getMonsterLength();
+		this.rewardCount = template.getRewardLength();
+		this.potionCount = template.getPotionLength();
+		this.monsterWords = template.monstersAlive.getWordCount();
+		this.rewardWords = template.rewardsAlive.getWordCount();
+		this.potionWords = template.potionsAlive.getWordCount();
+
+		moveTarget = new int[tiles*4];
+		legalMoves = new byte[tiles];
+		occupant = new int[tiles];
+		isExit = new boolean[tiles];
+		visibleFrom = new long[tiles*tileWords];
+		PlayMap scratch = template.clone();
+		for(int x=0;x<template.getMapSizeX();x++){
+			for(int y=0;y<mapSizeY;y++){
+				int tile = template.getTileIndex(x,y);
+				moveTarget[tile*4+PlayMap.UP] = getMoveTarget(template, x, y-1);
+				moveTarget[tile*4+PlayMap.RIGHT] = getMoveTarget(template, x+1, y);
+				moveTarget[tile*4+PlayMap.DOWN] = getMoveTarget(template, x, y+1);
+				moveTarget[tile*4+PlayMap.LEFT] = getMoveTarget(template, x-1, y);
+				for(int d=0;d<4;d++){
+					if(moveTarget[tile*4+d]>=0){ legalMoves[tile] |= 1<<d; }
+				}
+				occupant[tile] = template.getOccupant(x,y);
+				isExit[tile] = template.isExit(x,y);
+				if(template.isPassable(x,y) && scratch.getHero()!=null){
+					scratch.getHero().setPosition(x,y);
+					scratch.updateViewport();
+					for(int w=0;w<tileWords;w++){ visibleFrom[tile*tileWords+w] = scratch.currentView.getWord(w); }
+				}
+			}
+		}
+
+		rewardBonus = new int[rewardCount];
+		for(int i=0;i<rewardCount;i++){ rewardBonus[i] = this.template.rewardChars.get(i).getTreasureBonus(); }
+		potionBonus = new int[potionCount];
+		potionHealing = new int[potionCount];
+		potionOverheal = new boolean[potionCount];
+		for(int i=0;i<potionCount;i++){
+			Powerup potion = this.template.potionChars.get(i);
+			potionBonus[i] = potion.getTreasureBonus();
+			potionHealing[i] = potion.getHealing();
+			potionOverheal[i] = potion.isOverheal();
+		}
+		heroStartingHitpoints = template.getHero()==null ? PlayMap.startingHP : template.getHero().getStartingHitpoints();
+
+		heroTile = new int[games];
+		heroHitpoints = new int[games];
+		heroScore = new int[games];
+		actionsTaken = new int[games];
+		halted = new boolean[games];
+		monsterDamage = new int[games*monsterCount];
+		monstersAlive = new long[games*monsterWords];
+		rewardsAlive = new long[games*rewardWords];
+		potionsAlive = new long[games*potionWords];
+		explored = new long[games*tileWords];
+		visitedTiles = new long[games*tileWords];
+		visited = new int[games*tiles];
+		for(int g=0;g<games;g++){ loadGame(g, this.template); }
+	}
+
+	int getMoveTarget(PlayMap map, int x, int y){
+		if(!map.isWithinBounds(x,y) || !map.isPassable(x,y)){ return -1; }
+		return map.getTileIndex(x,y);
+	}
+
+	public int getGames(){ return games; }
+
+	// ----------------------------------------------------------------
+	// LOADING AND EXPORTING GAMES
+	// ----------------------------------------------------------------
+
+	/** Copies the state of a PlayMap of the same dungeon into one game. */
+	public void loadGame(int game, PlayMap source){
+		Hero hero = source.getHero();
+		heroTile[game] = hero==null ? 0 : source.getTileIndex(hero.getX(), hero.getY());
+		heroHitpoints[game] = hero==null ? 0 : hero.getHitpoints();
+		heroScore[game] = hero==null ? 0 : hero.getScore();
+		halted[game] = hero==null || source.isGameHalted();
+		actionsTaken[game] = source.getActionsTaken();
+		for(int i=0;i<monsterCount;i++){ monsterDamage[game*monsterCount+i] = source.monsterDamage[i]; }
+		copyWords(source.monstersAlive, monstersAlive, game*monsterWords);
+		copyWords(source.rewardsAlive, rewardsAlive, game*rewardWords);
+		copyWords(source.potionsAlive, potionsAlive, game*potionWords);
+		copyWords(source.explored, explored, game*tileWords);
+		copyWords(source.visitedTiles, visitedTiles, game*tileWords);
+		System.arraycopy(source.visited, 0, visited, game*tiles, tiles);
+	}
+	void copyWords(BitBoard source, long[] target, int offset){
+		for(int w=0;w<source.getWordCount();w++){ target[offset+w] = source.getWord(w); }
+	}
+
+	/** Copies the whole state of one game over another, e.g. to restart a rollout from a saved game. */
+	public void copyGame(int from, int to){
+		heroTile[to] = heroTile[from];
+		heroHitpoints[to] = heroHitpoints[from];
+		heroScore[to] = heroScore[from];
+		actionsTaken[to] = actionsTaken[from];
+		halted[to] = halted[from];
+		System.arraycopy(monsterDamage, from*monsterCount, monsterDamage, to*monsterCount, monsterCount);
+		System.arraycopy(monstersAlive, from*monsterWords, monstersAlive, to*monsterWords, monsterWords);
+		System.arraycopy(rewardsAlive, from*rewardWords, rewardsAlive, to*rewardWords, rewardWords);
+		System.arraycopy(potionsAlive, from*potionWords, potionsAlive, to*potionWords, potionWords);
+		System.arraycopy(explored, from*tileWords, explored, to*tileWords, tileWords);
+		System.arraycopy(visitedTiles, from*tileWords, visitedTiles, to*tileWords, tileWords);
+		System.arraycopy(visited, from*tiles, visited, to*tiles, tiles);
+	}
+
+	/** Puts one game back in the state of the template it was created from. */
+	public void resetGame(int game){ loadGame(game, template); }
+
+	/** @return a new PlayMap in the current state of one game (without logs) */
+	public PlayMap toPlayMap(int game){
+		PlayMap result = template.clone();
+		result.ensureOwnEntities();
+		if(result.hero!=null){
+			result.hero.setPosition(heroTile[game]/mapSizeY, heroTile[game]%mapSizeY);
+			result.hero.setHitpoints(heroHitpoints[game]);
+			result.hero.setScore(heroScore[game]);
+		}
+		result.gameHalted = halted[game];
+		result.actionsTaken = actionsTaken[game];
+		for(int i=0;i<monsterCount;i++){
+			Monster monster = result.monsterChars.get(i);
+			monster.setDamage(monsterDamage[game*monsterCount+i]);
+			monster.setHitpoints(isMonsterAlive(game,i) ? monster.getStartingHitpoints() : 0);
+		}
+		for(int i=0;i<rewardCount;i++){
+			Reward reward = result.rewardChars.get(i);
+			reward.setHitpoints(isRewardAlive(game,i) ? reward.getStartingHitpoints() : 0);
+		}
+		for(int i=0;i<potionCount;i++){
+			Powerup potion = result.potionChars.get(i);
+			potion.setHitpoints(isPotionAlive(game,i) ? potion.getStartingHitpoints() : 0);
+		}
+		result.syncAlive();
+		for(int w=0;w<tileWords;w++){
+			result.explored.setWord(w, explored[game*tileWords+w]);
+			result.visitedTiles.setWord(w, visitedTiles[game*tileWords+w]);
+		}
+		System.arraycopy(visited, game*tiles, result.visited, 0, tiles);
+		result.visitedHash = ZobristKeys.hash(result.hashKeys.visitedTile, result.visitedTiles);
+		result.clearCurrentView();
+		if(result.hero!=null){ result.updateViewport(); }
+		return result;
+	}
+
+	// ----------------------------------------------------------------
+	// STEPPING
+	// ----------------------------------------------------------------
+
+	/**
+	 * Advances every game by one action, as {@link PlayMap#updateGame(int)}.
+	 * @return the number of games that were not halted before the tick
+	 */
+	public int step(int[] actions){ return step(actions, 0, games); }
+
+	/** Same as {@link #step(int[])}, but the games are split over the common fork/join pool. */
+	public int stepParallel(final int[] actions){
+		final int chunks = Math.max(1, Math.min(games/1024, Runtime.getRuntime().availableProcessors()*4));
+		return IntStream.range(0, chunks).parallel()
+				.map(c -> step(actions, (int)((long)games*c/chunks), (int)((long)games*(c+1)/chunks)))
+				.sum();
+	}
+
+	/** Advances games [from,to) by one action each. */
+	public int step(int[] actions, int from, int to){
+		int active = 0;
+		for(int g=from;g<to;g++){
+			if(halted[g]){ continue; }
+			active++;
+			int action = actions[g];
+			int tile = heroTile[g];
+			int target = tile;
+			if(action>=PlayMap.UP && action<=PlayMap.LEFT){
+				target = moveTarget[tile*4+action];
+				if(target<0){ continue; }
+			}
+			int occupied = occupant[target];
+			int kind = occupied>>>PlayMap.OCCUPANT_SHIFT;
+			int index = occupied & 0xFFFF;
+			if(kind==PlayMap.OCCUPANT_MONSTER && clearIfSet(monstersAlive, g*monsterWords, index)){
+				int hp = heroHitpoints[g];
+				if(hp>0){ hp -= monsterDamage[g*monsterCount+index]; }
+				heroHitpoints[g] = Math.max(0, hp);
+			} else if(kind==PlayMap.OCCUPANT_REWARD && clearIfSet(rewardsAlive, g*rewardWords, index)){
+				heroScore[g] += rewardBonus[index];
+			} else if(kind==PlayMap.OCCUPANT_POTION && clearIfSet(potionsAlive, g*potionWords, index)){
+				heroScore[g] += potionBonus[index];
+				heal(g, index);
+			} else if(isExit[target]){
+				halted[g] = true;
+			}
+			heroTile[g] = target;
+			visited[g*tiles+target]++;
+			visitedTiles[g*tileWords+(target>>>6)] |= 1L<<target;
+			actionsTaken[g]++;
+			if(heroHitpoints[g]<=0){ halted[g] = true; }
+			int seen = target*tileWords;
+			int offset = g*tileWords;
+			for(int w=0;w<tileWords;w++){ explored[offset+w] |= visibleFrom[seen+w]; }
+		}
+		return active;
+	}
+
+	boolean clearIfSet(long[] bits, int offset, int index){
+		int word = offset+(index>>>6);
+		long mask = 1L<<index;
+		if((bits[word] & mask)==0){ return false; }
+		bits[word] &= ~mask;
+		return true;
+	}
+
+	// same as Powerup.getHealedAmount() followed by Hero.damage(-amount)
+	void heal(int game, int potion){
+		int hp = heroHitpoints[game];
+		int amount;
+		if(potionOverheal[potion]){
+			amount = potionHealing[potion];
+		} else if(hp>=heroStartingHitpoints){
+			amount = 0;
+		} else {
+			amount = Math.min(potionHealing[potion], heroStartingHitpoints-hp);
+		}
+		if(hp>0){ hp += amount; }
+		heroHitpoints[game] = Math.max(0, hp);
+	}
+
+	// ----------------------------------------------------------------
+	// COMPACT STATE (for searches that keep their own copies of it)
+	// ----------------------------------------------------------------
+	// kind is one of Dungeon.OCCUPANT_MONSTER, OCCUPANT_REWARD or OCCUPANT_POTION
+
+	/** Puts the hero of one game on a tile with the given hitpoints and score; the game is halted only if the hero is dead. */
+	public void setHero(int game, int tile, int hitpoints, int score){
+		heroTile[game] = tile;
+		heroHitpoints[game] = hitpoints;
+		heroScore[game] = score;
+		halted[game] = hitpoints<=0;
+	}
+
+	public int getAliveWordCount(int kind){
+		if(kind==PlayMap.OCCUPANT_MONSTER){ return monsterWords; }
+		if(kind==PlayMap.OCCUPANT_REWARD){ return rewardWords; }
+		return potionWords;
+	}
+	public long getAliveWord(int game, int kind, int word){
+		if(kind==PlayMap.OCCUPANT_MONSTER){ return monstersAlive[game*monsterWords+word]; }
+		if(kind==PlayMap.OCCUPANT_REWARD){ return rewardsAlive[game*rewardWords+word]; }
+		return potionsAlive[game*potionWords+word];
+	}
+	public void setAliveWord(int game, int kind, int word, long value){
+		if(kind==PlayMap.OCCUPANT_MONSTER){ monstersAlive[game*monsterWords+word] = value; }
+		else if(kind==PlayMap.OCCUPANT_REWARD){ rewardsAlive[game*rewardWords+word] = value; }
+		else { potionsAlive[game*potionWords+word] = value; }
+	}
+
+	/** Puts every halted game back in the template state. @return number of games reset */
+	public int resetHaltedGames(){
+		int result = 0;
+		for(int g=0;g<games;g++){
+			if(halted[g]){ resetGame(g); result++; }
+		}
+		return result;
+	}
+
+	// ----------------------------------------------------------------
+	// GETTERS
+	// ----------------------------------------------------------------
+
+	/** @return the hero's tile, x*mapSizeY+y */
+	public int getHeroTile(int game){ return heroTile[game]; }
+	/** @return bit mask of the directions (1<<UP, 1<<RIGHT, ...) the hero can move in, as PlayMap.getLegalMoves() */
+	public int getLegalMoves(int game){ return legalMoves[heroTile[game]]; }
+	public int getHeroX(int game){ return heroTile[game]/mapSizeY; }
+	public int getHeroY(int game){ return heroTile[game]%mapSizeY; }
+	public int getHeroHitpoints(int game){ return heroHitpoints[game]; }
+	public int getHeroScore(int game){ return heroScore[game]; }
+	public int getActionsTaken(int game){ return actionsTaken[game]; }
+	public boolean isGameHalted(int game){ return halted[game]; }
+	public int getVisited(int game, int x, int y){ return visited[game*tiles+x*mapSizeY+y]; }
+
+	public boolean isMonsterAlive(int game, int monster){ return isSet(monstersAlive, game*monsterWords, monster); }
+	public boolean isRewardAlive(int game, int reward){ return isSet(rewardsAlive, game*rewardWords, reward); }
+	public boolean isPotionAlive(int game, int potion){ return isSet(potionsAlive, game*potionWords, potion); }
+	boolean isSet(long[] bits, int offset, int index){ return (bits[offset+(index>>>6)] & (1L<<index))!=0; }
+
+	public int getMonstersKilled(int game){ return monsterCount-countBits(monstersAlive, game*monsterWords, monsterWords); }
+	public int getRewardsCollected(int game){ return rewardCount-countBits(rewardsAlive, game*rewardWords, rewardWords); }
+	public int getPotionsDrunk(int game){ return potionCount-countBits(potionsAlive, game*potionWords, potionWords); }
+	public int getTilesExplored(int game){ return countBits(explored, game*tileWords, tileWords); }
+	public int getTilesVisited(int game){ return countBits(visitedTiles, game*tileWords, tileWords); }
+	int countBits(long[] bits, int offset, int words){
+		int result = 0;
+		for(int w=0;w<words;w++){ result += Long.bitCount(bits[offset+w]); }
+		return result;
+	}
+}
@@ -0,0 +1,125 @@
+package dungeon.play;
+
+import util.math2d.BoolGridView;
+
+/**
+ * A fixed-size set of bits packed into long words. PlayMap uses it for its
+ * per-tile layers (walls, explored, current view, visited) indexed by
+ * x*mapSizeY+y, and for per-entity liveness indexed by entity index.
+ * A 12x12 map fits in three words, so copying and counting are a handful
+ * of word operations.
+ */
+public class BitBoard {
+	final long[] words;
+	final int size;
+
+	public BitBoard(int size){
+		this.size = size;
+		this.words = new long[(size+63)>>>6];
+	}
+
+	public BitBoard(BitBoard copy){
+		this.size = copy.size;
+		this.words = copy.words.clone();
+	}
+
+	public int size(){ return size; }
+	public int getWordCount(){ return words.length; }
+	public long getWord(int wordIndex){ return words[wordIndex]; }
+	public void setWord(int wordIndex, long value){ words[wordIndex] = value; }
+
+	public boolean get(int index){ return (words[index>>>6] & (1L<<index))!=0; }
+	public void set(int index){ words[index>>>6] |= (1L<<index); }
+	public void clear(int index){ words[index>>>6] &= ~(1L<<index); }
+	public void set(int index, boolean value){
+		if(value){ set(index); } else { clear(index); }
+	}
+
+	public void setAll(){
+		for(int i=0;i<words.length;i++){ words[i] = -1L; }
+		int extra = words.length*64-size;
+		if(extra>0){ words[words.length-1] >>>= extra; }
+	}
+	public void clearAll(){
+		for(int i=0;i<words.length;i++){ words[i] = 0; }
+	}
+
+	public void copyFrom(BitBoard other){
+		System.arraycopy(other.words, 0, words, 0, words.length);
+	}
+	public void or(BitBoard other){
+		for(int i=0;i<words.length;i++){ words[i] |= other.words[i]; }
+	}
+
+	public boolean isEmpty(){
+		for(int i=0;i<words.length;i++){ if(words[i]!=0){ return false; } }
+		return true;
+	}
+
+	/** @return number of set bits */
+	public int count(){
+		int result = 0;
+		for(int i=0;i<words.length;i++){ result += Long.bitCount(words[i]); }
+		return result;
+	}
+	/** @return number of bits set in both this board and the other */
+	public int countAnd(BitBoard other){
+		int result = 0;
+		for(int i=0;i<words.length;i++){ result += Long.bitCount(words[i] & other.words[i]); }
+		return result;
+	}
+	/** @return number of bits set in this board but not in the other */
+	public int countAndNot(BitBoard other){
+		int result = 0;
+		for(int i=0;i<words.length;i++){ result += Long.bitCount(words[i] & ~other.words[i]); }
+		return result;
+	}
+
+	/** @return index of the first set bit at or after fromIndex, or -1 if none */
+	public int nextSetBit(int fromIndex){
+		if(fromIndex>=size){ return -1; }
+		int w = fromIndex>>>6;
+		long word = words[w] & (-1L<<fromIndex);
+		while(true){
+			if(word!=0){ return w*64+Long.numberOfTrailingZeros(word); }
+			if(++w==words.length){ return -1; }
+			word = words[w];
+		}
+	}
+
+	/** Expands a tile board (indexed by x*sizeY+y) into a 2D array. */
+	public boolean[][] toArray(int sizeX, int sizeY){
+		boolean[][] result = new boolean[sizeX][sizeY];
+		for(int i=nextSetBit(0);i>=0;i=nextSetBit(i+1)){
+			result[i/sizeY][i%sizeY] = true;
+		}
+		return result;
+	}
+
+	/** @return a live read-only view of a tile board (indexed by x*sizeY+y) */
+	public BoolGridView asGrid(final int sizeX, final int sizeY){
+		return new BoolGridView(){
+			public int getSizeX(){ return sizeX; }
+			public int getSizeY(){ return sizeY; }
+			public boolean get(int x, int y){ return BitBoard.this.get(x*sizeY+y); }
+			public int count(){ return BitBoard.this.count(); }
+			public boolean[][] toArray(){ return BitBoard.this.toArray(sizeX, sizeY); }
+		};
+	}
+
+	@Override
+	public boolean equals(Object other){
+		if(!(other instanceof BitBoard)){ return false; }
+		BitBoard board = (BitBoard)other;
+		if(board.size!=size){ return false; }
+		for(int i=0;i<words.length;i++){ if(words[i]!=board.words[i]){ return false; } }
+		return true;
+	}
+
+	@Override
+	public int hashCode(){
+		long result = size;
+		for(int i=0;i<words.length;i++){ result = result*31+words[i]; }
+		return (int)(result^(result>>>32));
+	}
+}
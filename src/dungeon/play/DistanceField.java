@@ -0,0 +1,280 @@
+package dungeon.play;
+
+import java.util.Arrays;
+
+import libraries.GridGraph;
+import util.math2d.Point2D;
+
+/**
+ * The cost of walking from every tile of a PlayMap to the nearest goal, where
+ * goals are the live entities of the chosen kinds (and/or the exits) and
+ * entering a tile costs one step plus dangerWeight times the damage of a live
+ * monster standing on it. Built once with Dijkstra's algorithm from all goals
+ * at the same time; afterwards the field compares the map's liveness layers
+ * with the ones it was built for, and when monsters die, rewards are
+ * collected (or moves are undone) it only repairs the tiles whose nearest
+ * goal or cheapest path changed.
+ */
+public class DistanceField {
+	public final static int GOAL_MONSTERS = 1;
+	public final static int GOAL_REWARDS = 2;
+	public final static int GOAL_POTIONS = 4;
+	public final static int GOAL_EXITS = 8;
+	public final static float UNREACHABLE = Float.POSITIVE_INFINITY;
+
+	final PlayMap map;
+	final GridGraph graph;
+	final int goals;
+	final float dangerWeight;
+
+	final float[] distance;	// by grid tile (x*sizeY+y)
+	final int[] toward;		// next tile of the cheapest path, -1 at goals and where there is no path
+	final float[] enterCost;
+	final boolean[] goal;
+
+	// the liveness the field currently describes
+	final BitBoard monstersSeen;
+	final BitBoard rewardsSeen;
+	final BitBoard potionsSeen;
+	int[] damageSeen;
+	boolean built;
+
+	long[] heap;			// (distance bits<<32)|tile; stale entries are skipped when popped
+	int heapSize;
+	int[] pending;
+	int pendingSize;
+	int rebuilds;
+	int repairs;
+
+	public DistanceField(PlayMap map, int goals, float dangerWeight){
+		this.map = map;
+		this.graph = map.getPaths().getGraph();
+		this.goals = goals;
+		this.dangerWeight = dangerWeight;
+		int tiles = graph.getTileCount();
+		distance = new float[tiles];
+		toward = new int[tiles];
+		enterCost = new float[tiles];
+		goal = new boolean[tiles];
+		monstersSeen = new BitBoard(map.monstersAlive.size());
+		rewardsSeen = new BitBoard(map.rewardsAlive.size());
+		potionsSeen = new BitBoard(map.potionsAlive.size());
+		heap = new long[tiles*4+16];
+		pending = new int[tiles+monstersSeen.size()+rewardsSeen.size()+potionsSeen.size()];
+	}
+
+	public PlayMap getMap(){ return map; }
+	public int getGoals(){ return goals; }
+	public float getDangerWeight(){ return dangerWeight; }
+	public int getRebuildCount(){ return rebuilds; }
+	public int getRepairCount(){ return repairs; }
+
+	/** @return cost of the cheapest path from (x,y) to a goal, or UNREACHABLE */
+	public float getDistance(int x, int y){
+		if(!map.isWithinBounds(x,y)){ return UNREACHABLE; }
+		refresh();
+		return distance[map.getTileIndex(x,y)];
+	}
+
+	/** @return direction (PlayMap.UP, RIGHT, DOWN or LEFT) of the first step towards the nearest goal, or PlayMap.IDLE */
+	public int getNextStep(int x, int y){
+		if(!map.isWithinBounds(x,y)){ return PlayMap.IDLE; }
+		refresh();
+		int next = toward[map.getTileIndex(x,y)];
+		if(next<0){ return PlayMap.IDLE; }
+		int nextX = graph.getTileX(next);
+		int nextY = graph.getTileY(next);
+		if(nextY<y){ return PlayMap.UP; }
+		if(nextX>x){ return PlayMap.RIGHT; }
+		if(nextY>y){ return PlayMap.DOWN; }
+		return PlayMap.LEFT;
+	}
+
+	public boolean isGoal(int x, int y){
+		if(!map.isWithinBounds(x,y)){ return false; }
+		refresh();
+		return goal[map.getTileIndex(x,y)];
+	}
+
+	/** Brings the field up to date with the map; called by every getter. */
+	public void refresh(){
+		if(!built || damageSeen!=map.monsterDamage){
+			rebuild();
+			return;
+		}
+		pendingSize = 0;
+		collectChanges(map.monstersAlive, monstersSeen, PlayMap.MONSTER);
+		collectChanges(map.rewardsAlive, rewardsSeen, PlayMap.TREASURE);
+		collectChanges(map.potionsAlive, potionsSeen, PlayMap.POTION);
+		if(pendingSize>0){ repair(); }
+	}
+
+	/** Recomputes the whole field from scratch. */
+	public void rebuild(){
+		monstersSeen.copyFrom(map.monstersAlive);
+		rewardsSeen.copyFrom(map.rewardsAlive);
+		potionsSeen.copyFrom(map.potionsAlive);
+		damageSeen = map.monsterDamage;
+		Arrays.fill(distance, UNREACHABLE);
+		Arrays.fill(toward, -1);
+		heapSize = 0;
+		for(int tile=0;tile<distance.length;tile++){
+			enterCost[tile] = getEnterCost(tile);
+			goal[tile] = isGoalTile(tile);
+			if(goal[tile]){
+				distance[tile] = 0;
+				push(tile);
+			}
+		}
+		propagate();
+		built = true;
+		rebuilds++;
+	}
+
+	protected void collectChanges(BitBoard alive, BitBoard seen, int type){
+		for(int w=0;w<seen.words.length;w++){
+			long changed = seen.words[w] ^ alive.words[w];
+			while(changed!=0){
+				int index = w*64+Long.numberOfTrailingZeros(changed);
+				changed &= changed-1;
+				Point2D position = type==PlayMap.MONSTER ? map.getMonster(index) : type==PlayMap.TREASURE ? map.getReward(index) : map.getPotion(index);
+				pending[pendingSize++] = map.getTileIndex((int)(position.x), (int)(position.y));
+			}
+			seen.words[w] = alive.words[w];
+		}
+	}
+
+	/**
+	 * Tiles whose cheapest path got dearer (or lost its goal) are cleared and
+	 * refilled from their neighbours; tiles that got cheaper (or became goals)
+	 * are pushed so the improvement spreads. One Dijkstra pass does both.
+	 */
+	protected void repair(){
+		heapSize = 0;
+		int clearedStart = pendingSize;
+		for(int i=0;i<clearedStart;i++){
+			int tile = pending[i];
+			float oldCost = enterCost[tile];
+			boolean wasGoal = goal[tile];
+			enterCost[tile] = getEnterCost(tile);
+			goal[tile] = isGoalTile(tile);
+			if(wasGoal && !goal[tile]){
+				clearSubtree(tile, true);
+			} else if(enterCost[tile]>oldCost){
+				clearSubtree(tile, false);
+			}
+		}
+		for(int i=0;i<clearedStart;i++){
+			int tile = pending[i];
+			if(goal[tile] && distance[tile]!=0){
+				distance[tile] = 0;
+				toward[tile] = -1;
+			}
+			if(distance[tile]!=UNREACHABLE){ push(tile); }
+		}
+		// refill the cleared tiles from their neighbours that are still valid
+		for(int i=clearedStart;i<pendingSize;i++){
+			int tile = pending[i];
+			for(int l=graph.getLinkCount(tile)-1;l>=0;l--){
+				int next = graph.getLink(tile,l);
+				float candidate = distance[next]+enterCost[next];
+				if(candidate<distance[tile]){
+					distance[tile] = candidate;
+					toward[tile] = next;
+				}
+			}
+			if(distance[tile]!=UNREACHABLE){ push(tile); }
+		}
+		propagate();
+		repairs++;
+	}
+
+	/** Clears the tiles whose cheapest path leads through root, appending them to pending. */
+	protected void clearSubtree(int root, boolean includeRoot){
+		int start = pendingSize;
+		int read = start;
+		if(includeRoot){
+			pending[pendingSize++] = root;
+		} else {
+			addChildren(root);
+		}
+		while(read<pendingSize){
+			int tile = pending[read++];
+			addChildren(tile);
+			distance[tile] = UNREACHABLE;
+			toward[tile] = -1;
+		}
+	}
+	protected void addChildren(int tile){
+		for(int l=graph.getLinkCount(tile)-1;l>=0;l--){
+			int next = graph.getLink(tile,l);
+			if(toward[next]==tile && distance[next]!=UNREACHABLE){ pending[pendingSize++] = next; }
+		}
+	}
+
+	protected void propagate(){
+		while(heapSize>0){
+			long top = pop();
+			int tile = (int)top;
+			float tileDistance = Float.intBitsToFloat((int)(top>>>32));
+			if(tileDistance!=distance[tile]){ continue; }
+			float candidate = tileDistance+enterCost[tile];
+			for(int l=graph.getLinkCount(tile)-1;l>=0;l--){
+				int next = graph.getLink(tile,l);
+				if(candidate<distance[next]){
+					distance[next] = candidate;
+					toward[next] = tile;
+					push(next);
+				}
+			}
+		}
+	}
+
+	protected float getEnterCost(int tile){
+		int x = graph.getTileX(tile);
+		int y = graph.getTileY(tile);
+		int monster = map.getMonsterIndex(x,y);
+		if(monster<0){ return 1.f; }
+		return 1.f+dangerWeight*map.monsterDamage[monster];
+	}
+
+	protected boolean isGoalTile(int tile){
+		if(!graph.isWalkable(tile)){ return false; }
+		int x = graph.getTileX(tile);
+		int y = graph.getTileY(tile);
+		if((goals & GOAL_MONSTERS)!=0 && map.getMonsterIndex(x,y)>=0){ return true; }
+		if((goals & GOAL_REWARDS)!=0 && map.getRewardIndex(x,y)>=0){ return true; }
+		if((goals & GOAL_POTIONS)!=0 && map.getPotionIndex(x,y)>=0){ return true; }
+		if((goals & GOAL_EXITS)!=0 && map.isExit(x,y) && !map.getEntrance().isAt(x,y)){ return true; }
+		return false;
+	}
+
+	void push(int tile){
+		if(heapSize==heap.length){ heap = Arrays.copyOf(heap, heap.length*2); }
+		long entry = ((long)Float.floatToIntBits(distance[tile])<<32) | tile;
+		int i = heapSize++;
+		while(i>0){
+			int up = (i-1)>>>1;
+			if(heap[up]<=entry){ break; }
+			heap[i] = heap[up];
+			i = up;
+		}
+		heap[i] = entry;
+	}
+
+	long pop(){
+		long result = heap[0];
+		long entry = heap[--heapSize];
+		int i = 0;
+		while(true){
+			int child = 2*i+1;
+			if(child>=heapSize){ break; }
+			if(child+1<heapSize && heap[child+1]<heap[child]){ child++; }
+			if(entry<=heap[child]){ break; }
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = entry;
+		return result;
+	}
+}
@@ -1,647 +1,1082 @@
-package dungeon.play;
-
-import java.util.Vector;
-import java.util.Arrays;
-
-import controllers.Controller;
-
-import dungeon.Dungeon;
-import libraries.PathLibrary;
-import util.math2d.Matrix2D;
-
-//import holmgard.CloningUtils;
-
-import util.math2d.Point2D;
-import util.statics.RandomNumberManager;
-
-public class PlayMap extends Dungeon implements Cloneable {
-	public final static int UP = 0;
-	public final static int RIGHT = 1;
-	public final static int DOWN = 2;
-	public final static int LEFT = 3;
-	public final static int IDLE = -1;
-	
-	public final static int NONE = 101;
-	public final static int UNKNOWN = 102;
-	public final static int EMPTY = 0;
-	public final static int WALL = 1;
-	public final static int EXIT = 2;
-	public final static int ENTRANCE = 3;
-	public final static int MONSTER = 4;
-	public final static int TREASURE = 5;
-	public final static int POTION = 6;
-	
-	public final static int TREASURESCORE = 1;
-	public final static int MONSTERSCORE = 0;
-	
-	Point2D entrance;
-	//Point2D hero;
-	
-	public Vector<Reward> rewardChars;
-	public Vector<Powerup> potionChars;
-	public Vector<Monster> monsterChars;
-	Hero hero;
-	
-	final int viewRange=2;
-	
-	boolean[][] explored;
-	boolean[][] currentView;
-    int[][] visited;
-	int actionsTaken;
-	
-	int[][] viewport;
-	
-	Vector<String> actionLog;
-	Vector<String> eventLog;
-	boolean gameHalted;
-
-    Dungeon baseMap;
-
-	static int startingHP = 40;
-	static int combatRange = 10;
-	static int combatBaseline = 10;
-	static int treasureBonus = 1;
-	static int potionHP = 10;
-	
-	public PlayMap(Dungeon baseMap){
-		super(baseMap.getMapSizeX(),baseMap.getMapSizeY());
-        this.baseMap = baseMap;
-		clearImpassable();
-		gameHalted = true;
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[x].length;y++){
-				this.impassable[x][y]=!baseMap.isPassable(x, y);
-			}
-		}
-		this.monsters = new Vector<Point2D>();
-		for(int i=0;i<baseMap.getMonsterLength();i++){ 
-			this.monsters.add(new Point2D(baseMap.getMonster(i))); 
-		}
-		this.rewards = new Vector<Point2D>();
-		for(int i=0;i<baseMap.getRewardLength();i++){ 
-			this.rewards.add(new Point2D(baseMap.getReward(i)));
-		}
-		this.potions = new Vector<Point2D>();
-		for(int i=0;i<baseMap.getPotionLength();i++){ 
-			this.potions.add(new Point2D(baseMap.getPotion(i)));
-		}
-		this.exits = new Vector<Point2D>();
-		for(int i=0;i<baseMap.getExitLength();i++){ 
-			this.exits.add(new Point2D(baseMap.getExit(i))); 
-		}
-		
-		entrance = this.getExit(0);
-		finalizeSketch();
-		resetLevel();
-	}
-
-    @Override
-    public PlayMap clone(){
-        PlayMap clone = new PlayMap(this.baseMap);
-		
-		clone.explored = Matrix2D.copy(this.explored);
-		clone.currentView = Matrix2D.copy(this.currentView);
-		clone.visited = Matrix2D.copy(this.visited);
-		clone.viewport = Matrix2D.copy(this.viewport);
-
-        Vector cloneRewards = new Vector(this.getRewardChars().size());
-        for(int i = 0; i < getRewardChars().size(); i++) {
-            cloneRewards.add(getRewardChars().get(i).clone());
-        }
-        clone.setRewardChars(cloneRewards);
-
-        Vector cloneMonsters = new Vector(this.getMonsterChars().size());
-        for(int i = 0; i < getMonsterChars().size(); i++) {
-            cloneMonsters.add(getMonsterChars().get(i).clone());
-        }
-        clone.setMonsterChars(cloneMonsters);
-
-        Vector clonePotions = new Vector(this.getPotionChars().size());
-        for(int i = 0; i < this.getPotionChars().size(); i++) {
-            clonePotions.add(getPotionChars().get(i).clone());
-        }
-        clone.setPotionChars(clonePotions);
-
-        if(eventLog != null) {
-			Vector cloneEventLog = new Vector(eventLog.size());
-            for(int logItem = 0; logItem < eventLog.size(); logItem++){
-                cloneEventLog.setElementAt(eventLog.get(logItem),logItem);
-            }
-			clone.eventLog = cloneEventLog;
-        }
-        if(actionLog != null) {
-			Vector cloneActionLog = new Vector(actionLog.size());
-            for(int logItem = 0; logItem < actionLog.size(); logItem++){
-                cloneActionLog.setElementAt(actionLog.get(logItem),logItem);
-            }
-			clone.actionLog = cloneActionLog;
-        }
-        
-		if(hero!=null){ clone.hero = this.getHero().clone(); }
-        clone.gameHalted = this.gameHalted;
-
-        return clone;
-    }
-
-	public Hero getHero(){ return hero; }
-	public boolean isGameHalted(){ return gameHalted; }
-	
-	public int getViewRange(){ return viewRange; }
-	
-	public boolean[][] getExplored(){ 
-		boolean[][] result = new boolean[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<explored.length;x++){
-			result[x] = Arrays.copyOf(explored[x], explored[x].length);
-		}
-		return result;
-	}
-	
-	public boolean[][] getUnexplored(){ 
-		boolean[][] result = new boolean[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<explored.length;x++){
-			for(int y=0;y<explored[x].length;y++){
-				result[x][y]=!explored[x][y];
-			}
-		}
-		return result;
-	}
-	
-	public int[][] getVisited(){ 
-		int[][] result = new int[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<visited.length;x++){
-			result[x] = Arrays.copyOf(visited[x], visited[x].length);
-		}
-		return result;
-	}
-
-	public boolean[][] getAnyVisited(){ 
-		boolean[][] result = new boolean[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<visited.length;x++){
-			for(int y=0;y<visited[x].length;y++){
-				result[x][y]=(visited[x][y]>0);
-			}
-		}
-		return result;
-	}
-
-	public int getActionsTaken(){ return actionsTaken; }
-	
-	public boolean[][] getCurrentView(){ 
-		boolean[][] result = new boolean[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<currentView.length;x++){
-			result[x] = Arrays.copyOf(currentView[x], currentView[x].length);
-		}
-		return result;
-	}
-	
-	public boolean[][] getExploredNoCurrentView(){ 
-		boolean[][] result = new boolean[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<explored.length;x++){
-			for(int y=0;y<explored[x].length;y++){
-				result[x][y]=(explored[x][y] && !currentView[x][y]);
-			}
-		}
-		return result;
-	}
-	
-	public Point2D getEntrance(){ return entrance; }
-	
-	// ----------------------------------------------------------------
-	// MOVES 
-	// ----------------------------------------------------------------
-	public boolean isValidMove(Point2D position){
-		return isValidMove((int)(position.x),(int)(position.y));
-	}
-	public boolean isValidMove(int x, int y){
-		if(!this.isWithinBounds(x, y) || !this.isPassable(x,y)){ return false; }
-		return true;
-	}
-	
-	// ----------------------------------------------------------------
-	// VIEWPORT getters
-	// ----------------------------------------------------------------
-	
-	public int[][] getViewPort(){ 
-		int[][] result = new int[viewport.length][viewport[0].length];
-		for(int x=0;x<viewport.length;x++){
-			viewport[x] = Arrays.copyOf(viewport[x], viewport[x].length);
-		}
-		return result;
-	}
-	
-	public boolean[][] getViewedOfType(int type){ 
-		boolean[][] result = new boolean[viewport.length][viewport[0].length];
-		for(int x=0;x<viewport.length;x++){
-			for(int y=0;y<viewport[x].length;y++){
-				result[x][y]=(viewport[x][y]==type);
-			}
-		}
-		return result;
-	}
-	public boolean[][] getViewedTreasures(){ return getViewedOfType(TREASURE); }
-	public boolean[][] getViewedMonsters(){ return getViewedOfType(MONSTER); }
-	public boolean[][] getViewedExits(){ return getViewedOfType(EXIT); }
-	public boolean[][] getViewedEntrances(){ return getViewedOfType(ENTRANCE); }
-	public boolean[][] getViewedPotions(){ return getViewedOfType(POTION); }
-	public boolean[][] getViewedWalls(){ return getViewedOfType(WALL); }
-	public boolean[][] getViewedEmpty(){ return getViewedOfType(EMPTY); }
-	public boolean[][] getViewedUnknown(){ return getViewedOfType(UNKNOWN); }
-	public boolean[][] getViewedNone(){ return getViewedOfType(NONE); }
-	
-	// ----------------------------------------------------------------
-	
-	protected void randomizeEntrance(){
-		int randomIndex = RandomNumberManager.getRandomInt(1, this.getExitLength());
-		entrance = this.getExit(randomIndex);
-	}
-	
-	public void startGame(){
-		clearExplored();
-		clearEventLog();
-        clearVisited();
-		actionsTaken = 0;
-		hero = new Hero(entrance,startingHP,"hero");
-		visited[(int)(hero.getStartingPosition().x)][(int)(hero.getStartingPosition().y)]=1;
-		resetLevel();
-		updateViewport();
-		gameHalted = false;
-	}
-
-    public void startGame(Controller aiAgent){
-        clearExplored();
-        clearEventLog();
-        hero = new Hero(entrance,startingHP,"hero");
-        resetLevel();
-        updateViewport();
-        gameHalted = false;
-    }
-	
-	public void resetLevel(){
-		this.setMonsterChars(new Vector<Monster>());
-		for(int i=0;i<super.getMonsterLength();i++){ 
-			this.getMonsterChars().add(new Monster(super.getMonster(i), "monster",combatBaseline, combatRange));
-		}
-		this.setRewardChars(new Vector<Reward>());
-		for(int i=0;i<super.getRewardLength();i++){ 
-			this.getRewardChars().add(new Reward(super.getReward(i), "treasure", treasureBonus));
-		}
-		this.setPotionChars(new Vector<Powerup>());
-		for(int i=0;i<super.getPotionLength();i++){ 
-			this.getPotionChars().add(new Powerup(super.getPotion(i), "potion", potionHP));
-		}
-	}
-	
-	public void resetLevelStatic(){
-		this.setMonsterChars(new Vector<Monster>());
-		for(int i=0;i<super.getMonsterLength();i++){ 
-			this.getMonsterChars().add(new Monster(super.getMonster(i), "monster",combatBaseline, 0));
-		}
-		this.setRewardChars(new Vector<Reward>());
-		for(int i=0;i<super.getRewardLength();i++){ 
-			this.getRewardChars().add(new Reward(super.getReward(i), "treasure", treasureBonus));
-		}
-		this.setPotionChars(new Vector<Powerup>());
-		for(int i=0;i<super.getPotionLength();i++){ 
-			this.getPotionChars().add(new Powerup(super.getPotion(i), "potion", potionHP));
-		}
-	}
-	
-	public void updateGame(int heroMovement){
-		if(!gameHalted){
-			updateHero(heroMovement);
-			updateGameState();
-			updateViewport();
-		}
-	}
-
-	protected void updateHero(int heroMovement){
-		int cHeroX = hero.getX();
-		int cHeroY = hero.getY();
-		if(heroMovement==UP){ cHeroY--; }
-		if(heroMovement==RIGHT){ cHeroX++; }
-		if(heroMovement==DOWN){ cHeroY++; }
-		if(heroMovement==LEFT){ cHeroX--; }
-		if(this.isWithinBounds(cHeroX, cHeroY) && this.isPassable(cHeroX, cHeroY)){
-			int rIndex = this.getRewardIndex(cHeroX, cHeroY);
-			int pIndex = this.getPotionIndex(cHeroX, cHeroY);
-			int mIndex = this.getMonsterIndex(cHeroX, cHeroY);
-			if(mIndex!=-1){ 
-				String event = monsterChars.get(mIndex).eventCollision(hero);
-				logEvent(event);
-			} else if(rIndex!=-1){ 
-				String event = rewardChars.get(rIndex).eventCollision(hero);
-				logEvent(event);
-			} else if(pIndex!=-1){ 
-				String event = potionChars.get(pIndex).eventCollision(hero);
-				logEvent(event);
-			} else if(this.isExit(cHeroX,cHeroY) && !entrance.isAt(cHeroX,cHeroY)){ 
-				hero.setPosition(cHeroX,cHeroY);
-				logEvent("Hero reaches the exit and completes the level.");
-				gameHalted = true;
-			} else {
-				hero.setPosition(cHeroX,cHeroY);
-			}
-
-            //Update visited matrix
-            visited[cHeroX][cHeroY]++;
-			actionsTaken++;
-		}
-	}
-	
-	@Override
-	public int getMonsterIndex(int x, int y){
-		for(int i=0;i<getMonsterChars().size();i++){
-			if(getMonsterChars().get(i).isAlive() && getMonsterChars().get(i).getX()==x && getMonsterChars().get(i).getY()==y){
-				return i;
-			}
-		}
-		return -1;
-	}
-	
-	@Override
-	public boolean[][] getMonsterArray(){
-		boolean[][] result = new boolean[impassable.length][impassable[0].length];
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<getMonsterChars().size();i++){
-			if(getMonsterChars().get(i).isAlive()){
-				result[(int)(getMonsterChars().get(i).getX())][(int)(getMonsterChars().get(i).getY())]=true;
-			}
-		}
-		return result;
-	}
-	
-	public boolean[][] getDeadMonsterArray(){
-		boolean[][] result = new boolean[impassable.length][impassable[0].length];
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<getMonsterChars().size();i++){
-			if(!getMonsterChars().get(i).isAlive()){
-				result[(int)(getMonsterChars().get(i).getX())][(int)(getMonsterChars().get(i).getY())]=true;
-			}
-		}
-		return result;
-	}
-	
-	@Override
-	public int getRewardIndex(int x, int y){
-		for(int i=0;i<getRewardChars().size();i++){
-			if(getRewardChars().get(i).isAlive() && getRewardChars().get(i).getX()==x && getRewardChars().get(i).getY()==y){
-				return i;
-			}
-		}
-		return -1;
-	}
-	
-	@Override
-	public boolean[][] getRewardArray(){
-		boolean[][] result = new boolean[impassable.length][impassable[0].length];
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<getRewardChars().size();i++){
-			if(getRewardChars().get(i).isAlive()){
-				result[(int)(getRewardChars().get(i).getX())][(int)(getRewardChars().get(i).getY())]=true;
-			}
-		}
-		return result;
-	}
-	
-	public boolean[][] getDeadRewardArray(){
-		boolean[][] result = new boolean[impassable.length][impassable[0].length];
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<getRewardChars().size();i++){
-			if(!getRewardChars().get(i).isAlive()){
-				result[(int)(getRewardChars().get(i).getX())][(int)(getRewardChars().get(i).getY())]=true;
-			}
-		}
-		return result;
-	}
-	
-	@Override
-	public int getPotionIndex(int x, int y){
-		for(int i=0;i<getPotionChars().size();i++){
-			if(getPotionChars().get(i).isAlive() && getPotionChars().get(i).getX()==x && getPotionChars().get(i).getY()==y){
-				return i;
-			}
-		}
-		return -1;
-	}
-	
-	@Override
-	public boolean[][] getPotionArray(){
-		boolean[][] result = new boolean[impassable.length][impassable[0].length];
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<getPotionChars().size();i++){
-			if(getPotionChars().get(i).isAlive()){
-				result[(int)(getPotionChars().get(i).getX())][(int)(getPotionChars().get(i).getY())]=true;
-			}
-		}
-		return result;
-	}
-	
-	public boolean[][] getDeadPotionArray(){
-		boolean[][] result = new boolean[impassable.length][impassable[0].length];
-		for(int x=0;x<impassable.length;x++){
-			for(int y=0;y<impassable[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<getPotionChars().size();i++){
-			if(!getPotionChars().get(i).isAlive()){
-				result[(int)(getPotionChars().get(i).getX())][(int)(getPotionChars().get(i).getY())]=true;
-			}
-		}
-		return result;
-	}
-	
-	protected void updateGameState(){
-		// game logic (monster movement, hp lost, etc.)
-		int cHeroX = hero.getX();
-		int cHeroY = hero.getY();
-		// check if monster adjacent to hero
-		if(!hero.isAlive()){ gameHalted = true; }
-	}
-	
-	protected void updateViewport(){
-		clearCurrentView();
-		viewport = new int[2*viewRange+1][2*viewRange+1];
-		for(int x=-viewRange;x<=viewRange;x++){
-			for(int y=-viewRange;y<=viewRange;y++){
-				int glob_x = (int)(hero.getX()+x);
-				int glob_y = (int)(hero.getY()+y);
-				int view_x = (int)(viewRange+x);
-				int view_y = (int)(viewRange+y);
-				if(isWithinViewRange(glob_x, glob_y)){
-					if(this.isPassable(glob_x,glob_y)){ viewport[view_x][view_y]=EMPTY; }
-					if(!this.isPassable(glob_x,glob_y)){ viewport[view_x][view_y]=WALL; }
-					if(this.isMonster(glob_x,glob_y)){ viewport[view_x][view_y]=MONSTER; }
-					if(this.isReward(glob_x,glob_y)){ viewport[view_x][view_y]=TREASURE; }
-					if(this.isPotion(glob_x,glob_y)){ viewport[view_x][view_y]=POTION; }
-					if(this.isExit(glob_x,glob_y)){ 
-						if(glob_x == entrance.x && glob_y == entrance.y){ 
-							viewport[view_x][view_y]=ENTRANCE; 
-						} else { 
-							viewport[view_x][view_y]=EXIT; 
-						}
-					}
-					// UPDATE EXPLORATION TABLE
-					explored[glob_x][glob_y]=true;
-					currentView[glob_x][glob_y]=true;
-				} else {
-					viewport[view_x][view_y]=NONE;
-				}
-			}
-		}
-	}
-	
-	protected boolean isWithinViewRange(Point2D glob_pos){ 
-		return isWithinViewRange((int)(glob_pos.x),(int)(glob_pos.y)); 
-	}
-	protected boolean isWithinViewRange(int glob_x, int glob_y){
-		if(!isWithinBounds(glob_x,glob_y)){ return false; }	// sanity check
-		int rel_x = (int)(glob_x-hero.getX());
-		int rel_y = (int)(glob_y-hero.getY());
-		if(viewRange==1){ 
-			if(Math.abs(rel_x)<=1 && rel_y==0){ return true; }
-			if(Math.abs(rel_y)<=1 && rel_x==0){ return true; }
-			return false;
-		}
-		if(viewRange==2){
-			//if(Math.abs(rel_x)==2 && rel_y==0){ return true; }
-			//if(Math.abs(rel_y)==2 && rel_x==0){ return true; }
-			if(Math.abs(rel_x)<=1 && Math.abs(rel_y)<=1){ return true; }
-			if(rel_x==2 && rel_y==0 && this.isPassable(glob_x-1, glob_y)){ return true; }
-			if(rel_x==-2 && rel_y==0 && this.isPassable(glob_x+1, glob_y)){ return true; }
-			if(rel_y==2 && rel_x==0 && this.isPassable(glob_x, glob_y-1)){ return true; }
-			if(rel_y==-2 && rel_x==0 && this.isPassable(glob_x, glob_y+1)){ return true; }
-			return false;
-		}
-		return(rel_x*rel_x+rel_y*rel_y<=viewRange*viewRange);
-	}
-	
-	protected void clearCurrentView(){
-		currentView = new boolean[this.getMapSizeX()][this.getMapSizeY()];
-		for(int x=0;x<currentView.length;x++){
-			for(int y=0;y<currentView[x].length;y++){
-				currentView[x][y]=false;
-			}
-		}
-	}
-	
-	protected void clearExplored(){
-		explored = new boolean[getMapSizeX()][getMapSizeY()];
-		for(int x=0;x<explored.length;x++){
-			for(int y=0;y<explored[x].length;y++){
-				explored[x][y]=false;
-			}
-		}
-	}
-
-    protected void clearVisited(){
-        visited = new int[getMapSizeX()][getMapSizeY()];
-        for(int x=0;x<visited.length;x++){
-            for(int y=0;y<visited[x].length;y++){
-                visited[x][y] = 0;
-            }
-        }
-    }
-	
-	
-	public boolean isExit(int x, int y){ 
-		int index = getExitIndex(x,y);
-		if(index>=0 && !entrance.isAt(x, y)){ return true; }
-		return false;
-	}
-	public boolean isEntrance(int x, int y){ 
-		return entrance.isAt(x, y);
-	}
-	public boolean isHero(int x, int y){ 
-		if(hero!=null && hero.getPosition().x==x && hero.getPosition().y==y){ return true; }
-		return false;
-	}
-	public boolean isMonster(int x, int y){ 
-		if(getMonsterIndex(x,y)>=0){ return true; }
-		return false;
-	}
-	public boolean isReward(int x, int y){ 
-		if(getRewardIndex(x,y)>=0){ return true; }
-		return false;
-	}
-	public boolean isPotion(int x, int y){ 
-		if(getPotionIndex(x,y)>=0){ return true; }
-		return false;
-	}
-	
-	protected void clearEventLog(){
-		eventLog = new Vector<String>();
-	}
-	public void logEvent(String event){ 
-		if(eventLog==null){ clearEventLog(); }
-		eventLog.add(event);
-	}
-	public String getLastEvent(){ 
-		if(eventLog!=null && !eventLog.isEmpty()){ return eventLog.lastElement(); }
-		return "";
-	}
-
-    public Vector<Reward> getRewardChars() { return rewardChars; }
-    public void setRewardChars(Vector<Reward> rewardChars) { this.rewardChars = rewardChars; }
-    public Reward getRewardChar(int index) { return this.rewardChars.get(index); }
-    public Vector<Powerup> getPotionChars() { return potionChars; }
-    public void setPotionChars(Vector<Powerup> potionChars) { this.potionChars = potionChars; }
-    public Powerup getPotionChar(int index) { return this.potionChars.get(index); }
-    public Vector<Monster> getMonsterChars() { return monsterChars; }
-    public void setMonsterChars(Vector<Monster> monsterChars) { this.monsterChars = monsterChars; }
-	public Monster getMonsterChar(int index) { return this.monsterChars.get(index); }
-	
-	public void incVisited(int x, int y){ visited[x][y]++; }
-	public void setVisited(int x, int y, int value){ visited[x][y] = value; }
-	
-	public String toASCII(){ return toASCII(true); }
-	public String toASCII(boolean includeHP){
-		String result="";
-		for(int y=0;y<mapSizeY;y++){
-			for(int x=0;x<mapSizeX;x++){
-				if(impassable[x][y]){ 
-					result+="#"; 
-				} else if(isHero(x,y)){
-					result+="@"; 
-				} else if(isEntrance(x,y)){
-					result+="E"; 
-				} else if(isExit(x,y)){
-					result+="X"; 
-				} else if(isMonster(x,y)){
-					result+="m"; 
-				} else if(isReward(x,y)){
-					result+="r"; 
-				} else if(isPotion(x,y)){
-					result+="p"; 
-				} else {
-					result+=".";
-				}				
-			}
-			result+="\n";
-		}
-		if(includeHP){
-			result+=hero.getHitpoints()+"\n";
-		}
-		return result;
-	}
+package dungeon.play;
+
+import java.util.Vector;
+import java.util.Arrays;
+
+import controllers.Controller;
+
+import dungeon.Dungeon;
+import dungeon.FlowField;
+import libraries.PathLibrary;
+import util.math2d.Matrix2D;
+
+//import holmgard.CloningUtils;
+
+import util.math2d.BoolGridView;
+import util.math2d.IntGridView;
+import util.math2d.Point2D;
+import util.statics.RandomNumberManager;
+
+public class PlayMap extends Dungeon implements Cloneable {
+	public final static int UP = 0;
+	public final static int RIGHT = 1;
+	public final static int DOWN = 2;
+	public final static int LEFT = 3;
+	public final static int IDLE = -1;
+	public final static int NO_TILE = -1;
+	
+	public final static int NONE = 101;
+	public final static int UNKNOWN = 102;
+	public final static int EMPTY = 0;
+	public final static int WALL = 1;
+	public final static int EXIT = 2;
+	public final static int ENTRANCE = 3;
+	public final static int MONSTER = 4;
+	public final static int TREASURE = 5;
+	public final static int POTION = 6;
+	
+	public final static int TREASURESCORE = 1;
+	public final static int MONSTERSCORE = 0;
+	
+	Point2D entrance;
+	//Point2D hero;
+	
+	// entity objects may be shared with clones until one of them changes; see ensureOwnEntities()
+	public Vector<Reward> rewardChars;
+	public Vector<Powerup> potionChars;
+	public Vector<Monster> monsterChars;
+	boolean ownsEntities;
+	int[] monsterDamage;	// copy of each monster's damage, replaced (never written) when it changes
+	Hero hero;
+	
+	final int viewRange=2;
+	
+	// tile layers are indexed by x*mapSizeY+y, entity layers by entity index
+	BitBoard walls;			// static, shared with clones
+	byte[] legalMoves;		// static, shared with clones; bit d is set if direction d leads to a passable tile
+	BitBoard explored;
+	BitBoard currentView;
+	BitBoard visitedTiles;	// tiles with a visit count above zero
+	int[] visited;
+	BitBoard monstersAlive;
+	BitBoard rewardsAlive;
+	BitBoard potionsAlive;
+	int actionsTaken;
+	
+	// Zobrist hash: the entity and visited parts are kept up to date as the 
+	// alive and visited bits change, the hero part is added in getHash()
+	ZobristKeys hashKeys;	// static, shared with clones
+	long contentHash;		// static, see getContentHash()
+	long entityHash;
+	long visitedHash;
+	boolean hashVisited = true;
+	int hashHpBucket = 1;
+	
+	Vector<DistanceField> distanceFields;	// created on request, never shared with clones
+	
+	int[][] viewport;
+	int[] viewFootprint;		// tiles currently in view, so the next update only clears those
+	int viewFootprintSize;
+	
+	// rules for each cell of the view window, in viewport order; static, shared with clones
+	int[] viewRule;
+	int[] viewCheckX;
+	int[] viewCheckY;
+	final static int VIEW_NEVER = 0;
+	final static int VIEW_ALWAYS = 1;
+	final static int VIEW_IF_PASSABLE = 2;	// visible if the tile at (viewCheckX,viewCheckY) is passable
+	
+	Vector<String> actionLog;
+	Vector<String> eventLog;
+	boolean gameHalted;
+
+    Dungeon baseMap;
+
+	static int startingHP = 40;
+	static int combatRange = 10;
+	static int combatBaseline = 10;
+	static int treasureBonus = 1;
+	static int potionHP = 10;
+	
+	public PlayMap(Dungeon baseMap){
+		super(baseMap.getMapSizeX(),baseMap.getMapSizeY());
+        this.baseMap = baseMap;
+		clearImpassable();
+		gameHalted = true;
+		for(int x=0;x<impassable.length;x++){
+			for(int y=0;y<impassable[x].length;y++){
+				this.impassable[x][y]=!baseMap.isPassable(x, y);
+			}
+		}
+		this.monsters = new Vector<Point2D>();
+		for(int i=0;i<baseMap.getMonsterLength();i++){ 
+			this.monsters.add(new Point2D(baseMap.getMonster(i))); 
+		}
+		this.rewards = new Vector<Point2D>();
+		for(int i=0;i<baseMap.getRewardLength();i++){ 
+			this.rewards.add(new Point2D(baseMap.getReward(i)));
+		}
+		this.potions = new Vector<Point2D>();
+		for(int i=0;i<baseMap.getPotionLength();i++){ 
+			this.potions.add(new Point2D(baseMap.getPotion(i)));
+		}
+		this.exits = new Vector<Point2D>();
+		for(int i=0;i<baseMap.getExitLength();i++){ 
+			this.exits.add(new Point2D(baseMap.getExit(i))); 
+		}
+		
+		rebuildOccupancy();
+		entrance = this.getExit(0);
+		walls = new BitBoard(mapSizeX*mapSizeY);
+		for(int x=0;x<mapSizeX;x++){
+			for(int y=0;y<mapSizeY;y++){
+				if(impassable[x][y]){ walls.set(getTileIndex(x,y)); }
+			}
+		}
+		legalMoves = new byte[mapSizeX*mapSizeY];
+		for(int x=0;x<mapSizeX;x++){
+			for(int y=0;y<mapSizeY;y++){
+				if(isValidMove(x,y-1)){ legalMoves[getTileIndex(x,y)] |= 1<<UP; }
+				if(isValidMove(x+1,y)){ legalMoves[getTileIndex(x,y)] |= 1<<RIGHT; }
+				if(isValidMove(x,y+1)){ legalMoves[getTileIndex(x,y)] |= 1<<DOWN; }
+				if(isValidMove(x-1,y)){ legalMoves[getTileIndex(x,y)] |= 1<<LEFT; }
+			}
+		}
+		explored = new BitBoard(mapSizeX*mapSizeY);
+		currentView = new BitBoard(mapSizeX*mapSizeY);
+		visitedTiles = new BitBoard(mapSizeX*mapSizeY);
+		visited = new int[mapSizeX*mapSizeY];
+		monstersAlive = new BitBoard(monsters.size());
+		rewardsAlive = new BitBoard(rewards.size());
+		potionsAlive = new BitBoard(potions.size());
+		contentHash = super.getContentHash();
+		hashKeys = new ZobristKeys(contentHash, mapSizeX*mapSizeY, monsters.size(), rewards.size(), potions.size());
+		viewport = new int[2*viewRange+1][2*viewRange+1];
+		viewFootprint = new int[(2*viewRange+1)*(2*viewRange+1)];
+		initViewRules();
+		finalizeSketch();
+		resetLevel();
+	}
+
+	/**
+	 * Copy constructor used by {@link #clone()}. The static layer (walls, exits, 
+	 * entity positions and {@link dungeon.DungeonPaths}) is shared with the 
+	 * original, so no pathfinding is recomputed; only the game state is copied.
+	 * Entity objects are shared too until either map changes one of them.
+	 */
+	private PlayMap(PlayMap original){
+		super();
+		shareLayout(original);
+		this.baseMap = original.baseMap;
+		this.entrance = original.entrance;
+		
+		this.walls = original.walls;
+		this.legalMoves = original.legalMoves;
+		this.explored = new BitBoard(original.explored);
+		this.currentView = new BitBoard(original.currentView);
+		this.visitedTiles = new BitBoard(original.visitedTiles);
+		this.visited = original.visited.clone();
+		this.viewport = Matrix2D.copy(original.viewport);
+		this.viewFootprint = original.viewFootprint.clone();
+		this.viewFootprintSize = original.viewFootprintSize;
+		this.viewRule = original.viewRule;
+		this.viewCheckX = original.viewCheckX;
+		this.viewCheckY = original.viewCheckY;
+		this.actionsTaken = original.actionsTaken;
+		this.gameHalted = original.gameHalted;
+		this.hashKeys = original.hashKeys;
+		this.contentHash = original.contentHash;
+		this.entityHash = original.entityHash;
+		this.visitedHash = original.visitedHash;
+		this.hashVisited = original.hashVisited;
+		this.hashHpBucket = original.hashHpBucket;
+		
+		this.monstersAlive = new BitBoard(original.monstersAlive);
+		this.rewardsAlive = new BitBoard(original.rewardsAlive);
+		this.potionsAlive = new BitBoard(original.potionsAlive);
+		this.monsterChars = original.monsterChars;
+		this.monsterDamage = original.monsterDamage;
+		this.rewardChars = original.rewardChars;
+		this.potionChars = original.potionChars;
+		original.ownsEntities = false;
+		this.ownsEntities = false;
+		
+		if(original.eventLog != null){ this.eventLog = new Vector<String>(original.eventLog); }
+		if(original.actionLog != null){ this.actionLog = new Vector<String>(original.actionLog); }
+		if(original.hero != null){ this.hero = original.hero.clone(); }
+	}
+
+	@Override
+	public PlayMap clone(){
+		return new PlayMap(this);
+	}
+	
+	/**
+	 * Gives this map its own copies of the entity objects if they are still 
+	 * shared with a clone. Must be called before any entity is modified.
+	 */
+	protected void ensureOwnEntities(){
+		if(ownsEntities){ return; }
+		Vector<Reward> ownRewards = new Vector<Reward>(rewardChars.size());
+		for(int i = 0; i < rewardChars.size(); i++) {
+			ownRewards.add(rewardChars.get(i).clone());
+		}
+		rewardChars = ownRewards;
+		Vector<Monster> ownMonsters = new Vector<Monster>(monsterChars.size());
+		for(int i = 0; i < monsterChars.size(); i++) {
+			ownMonsters.add(monsterChars.get(i).clone());
+		}
+		monsterChars = ownMonsters;
+		Vector<Powerup> ownPotions = new Vector<Powerup>(potionChars.size());
+		for(int i = 0; i < potionChars.size(); i++) {
+			ownPotions.add(potionChars.get(i).clone());
+		}
+		potionChars = ownPotions;
+		ownsEntities = true;
+	}
+
+	public Hero getHero(){ return hero; }
+	public boolean isGameHalted(){ return gameHalted; }
+	
+	public int getViewRange(){ return viewRange; }
+	
+	// the *Grid() getters return live read-only views; the array getters return copies
+	public BoolGridView getExploredGrid(){ return explored.asGrid(mapSizeX,mapSizeY); }
+	public BoolGridView getUnexploredGrid(){ return getExploredGrid().not(); }
+	public BoolGridView getCurrentViewGrid(){ return currentView.asGrid(mapSizeX,mapSizeY); }
+	public BoolGridView getExploredNoCurrentViewGrid(){ return getExploredGrid().andNot(getCurrentViewGrid()); }
+	public BoolGridView getAnyVisitedGrid(){ return visitedTiles.asGrid(mapSizeX,mapSizeY); }
+	public IntGridView getVisitedGrid(){ 
+		return new IntGridView(){
+			public int getSizeX(){ return mapSizeX; }
+			public int getSizeY(){ return mapSizeY; }
+			public int get(int x, int y){ return visited[x*mapSizeY+y]; }
+		};
+	}
+	
+	public boolean[][] getExplored(){ return getExploredGrid().toArray(); }
+	public boolean[][] getUnexplored(){ return getUnexploredGrid().toArray(); }
+	public boolean[][] getCurrentView(){ return getCurrentViewGrid().toArray(); }
+	public boolean[][] getExploredNoCurrentView(){ return getExploredNoCurrentViewGrid().toArray(); }
+	public boolean[][] getAnyVisited(){ return getAnyVisitedGrid().toArray(); }
+	
+	public int[][] getVisited(){ 
+		int[][] result = new int[getMapSizeX()][getMapSizeY()];
+		for(int x=0;x<result.length;x++){
+			System.arraycopy(visited, x*mapSizeY, result[x], 0, mapSizeY);
+		}
+		return result;
+	}
+
+	public int getActionsTaken(){ return actionsTaken; }
+	
+	public int getTilesExplored(){ return explored.count(); }
+	public int getTilesVisited(){ return visitedTiles.count(); }
+	public int getMonstersKilled(){ return monstersAlive.size()-monstersAlive.count(); }
+	public int getRewardsCollected(){ return rewardsAlive.size()-rewardsAlive.count(); }
+	public int getPotionsDrunk(){ return potionsAlive.size()-potionsAlive.count(); }
+	
+	public BitBoard getMonstersAlive(){ return monstersAlive; }
+	public BitBoard getRewardsAlive(){ return rewardsAlive; }
+	public BitBoard getPotionsAlive(){ return potionsAlive; }
+	
+	public Point2D getEntrance(){ return entrance; }
+	
+	/** @return the flow field towards the nearest exit other than the entrance */
+	public FlowField getExitFlowField(){
+		int[] goals = new int[getExitLength()];
+		int count = 0;
+		for(int i=0;i<goals.length;i++){
+			Point2D exit = getExit(i);
+			if(!entrance.isAt((int)(exit.x),(int)(exit.y))){ goals[count++] = getTileIndex((int)(exit.x),(int)(exit.y)); }
+		}
+		return paths.getFlowField(Arrays.copyOf(goals, count));
+	}
+	/** @return the flow field towards the nearest treasure not yet collected */
+	public FlowField getRewardFlowField(){ return getFlowField(rewardsAlive, rewards); }
+	/** @return the flow field towards the nearest potion not yet drunk */
+	public FlowField getPotionFlowField(){ return getFlowField(potionsAlive, potions); }
+	/** @return the flow field towards the nearest live monster */
+	public FlowField getMonsterFlowField(){ return getFlowField(monstersAlive, monsters); }
+	protected FlowField getFlowField(BitBoard alive, Vector<Point2D> positions){
+		int[] goals = new int[alive.count()];
+		int count = 0;
+		for(int i=alive.nextSetBit(0);i>=0;i=alive.nextSetBit(i+1)){
+			goals[count++] = getTileIndex((int)(positions.get(i).x),(int)(positions.get(i).y));
+		}
+		return paths.getFlowField(goals);
+	}
+	
+	/**
+	 * @param goals a combination of DistanceField.GOAL_MONSTERS, GOAL_REWARDS, GOAL_POTIONS and GOAL_EXITS
+	 * @param dangerWeight extra cost per point of damage for entering a tile with a live monster
+	 * @return a distance field of this map, kept up to date as entities die; the same 
+	 * object is returned for the same arguments
+	 */
+	public DistanceField getDistanceField(int goals, float dangerWeight){
+		if(distanceFields==null){ distanceFields = new Vector<DistanceField>(); }
+		for(int i=0;i<distanceFields.size();i++){
+			DistanceField field = distanceFields.get(i);
+			if(field.getGoals()==goals && field.getDangerWeight()==dangerWeight){ return field; }
+		}
+		DistanceField result = new DistanceField(this, goals, dangerWeight);
+		distanceFields.add(result);
+		return result;
+	}
+	
+	// ----------------------------------------------------------------
+	// MOVES 
+	// ----------------------------------------------------------------
+	public boolean isValidMove(Point2D position){
+		return isValidMove((int)(position.x),(int)(position.y));
+	}
+	public boolean isValidMove(int x, int y){
+		if(!this.isWithinBounds(x, y) || walls.get(getTileIndex(x,y))){ return false; }
+		return true;
+	}
+	/** @param tile a tile index (x*mapSizeY+y), as returned by {@link #getNextTile(GameCharacter, int)} */
+	public boolean isValidMove(int tile){
+		if(tile<0 || tile>=mapSizeX*mapSizeY){ return false; }
+		return !walls.get(tile);
+	}
+	
+	/** @return bit mask of the directions (1<<UP, 1<<RIGHT, ...) that are valid moves from (x,y) */
+	public int getLegalMoves(int x, int y){
+		if(!isWithinBounds(x,y)){ return 0; }
+		return legalMoves[getTileIndex(x,y)];
+	}
+	/** @param tile a tile index (x*mapSizeY+y), as {@link #getTileIndex(int, int)} */
+	public int getLegalMoves(int tile){
+		if(tile<0 || tile>=mapSizeX*mapSizeY){ return 0; }
+		return legalMoves[tile];
+	}
+	
+	// allocation-free versions of the character position getters, as tile indices
+	public int getTileIndex(GameCharacter character){ return getTileIndex(character.getX(),character.getY()); }
+	/** @return the tile index one step from a character in the given direction (its own tile for IDLE), or NO_TILE if off the map */
+	public int getNextTile(GameCharacter character, int direction){
+		int cX = character.getX();
+		int cY = character.getY();
+		if(direction==UP){ cY--; }
+		if(direction==RIGHT){ cX++; }
+		if(direction==DOWN){ cY++; }
+		if(direction==LEFT){ cX--; }
+		if(!isWithinBounds(cX,cY)){ return NO_TILE; }
+		return getTileIndex(cX,cY);
+	}
+	
+	// ----------------------------------------------------------------
+	// VIEWPORT getters
+	// ----------------------------------------------------------------
+	
+	public IntGridView getViewPortGrid(){ return IntGridView.of(viewport); }
+	public BoolGridView getViewedOfTypeGrid(int type){ return getViewPortGrid().equalTo(type); }
+	
+	public int[][] getViewPort(){ 
+		int[][] result = new int[viewport.length][];
+		for(int x=0;x<viewport.length;x++){
+			result[x] = Arrays.copyOf(viewport[x], viewport[x].length);
+		}
+		return result;
+	}
+	
+	public boolean[][] getViewedOfType(int type){ return getViewedOfTypeGrid(type).toArray(); }
+	public boolean[][] getViewedTreasures(){ return getViewedOfType(TREASURE); }
+	public boolean[][] getViewedMonsters(){ return getViewedOfType(MONSTER); }
+	public boolean[][] getViewedExits(){ return getViewedOfType(EXIT); }
+	public boolean[][] getViewedEntrances(){ return getViewedOfType(ENTRANCE); }
+	public boolean[][] getViewedPotions(){ return getViewedOfType(POTION); }
+	public boolean[][] getViewedWalls(){ return getViewedOfType(WALL); }
+	public boolean[][] getViewedEmpty(){ return getViewedOfType(EMPTY); }
+	public boolean[][] getViewedUnknown(){ return getViewedOfType(UNKNOWN); }
+	public boolean[][] getViewedNone(){ return getViewedOfType(NONE); }
+	
+	// ----------------------------------------------------------------
+	
+	protected void randomizeEntrance(){
+		int randomIndex = RandomNumberManager.getRandomInt(1, this.getExitLength());
+		entrance = this.getExit(randomIndex);
+	}
+	
+	public void startGame(){
+		clearExplored();
+		clearEventLog();
+        clearVisited();
+		actionsTaken = 0;
+		hero = new Hero(entrance,startingHP,"hero");
+		setVisited((int)(hero.getStartingPosition().x),(int)(hero.getStartingPosition().y),1);
+		resetLevel();
+		updateViewport();
+		gameHalted = false;
+	}
+
+    public void startGame(Controller aiAgent){
+        clearExplored();
+        clearEventLog();
+        hero = new Hero(entrance,startingHP,"hero");
+        resetLevel();
+        updateViewport();
+        gameHalted = false;
+    }
+	
+	public void resetLevel(){
+		ownsEntities = true;
+		this.setMonsterChars(new Vector<Monster>());
+		for(int i=0;i<super.getMonsterLength();i++){ 
+			this.getMonsterChars().add(new Monster(super.getMonster(i), "monster",combatBaseline, combatRange));
+		}
+		this.setRewardChars(new Vector<Reward>());
+		for(int i=0;i<super.getRewardLength();i++){ 
+			this.getRewardChars().add(new Reward(super.getReward(i), "treasure", treasureBonus));
+		}
+		this.setPotionChars(new Vector<Powerup>());
+		for(int i=0;i<super.getPotionLength();i++){ 
+			this.getPotionChars().add(new Powerup(super.getPotion(i), "potion", potionHP));
+		}
+		syncAlive();
+	}
+	
+	public void resetLevelStatic(){
+		ownsEntities = true;
+		this.setMonsterChars(new Vector<Monster>());
+		for(int i=0;i<super.getMonsterLength();i++){ 
+			this.getMonsterChars().add(new Monster(super.getMonster(i), "monster",combatBaseline, 0));
+		}
+		this.setRewardChars(new Vector<Reward>());
+		for(int i=0;i<super.getRewardLength();i++){ 
+			this.getRewardChars().add(new Reward(super.getReward(i), "treasure", treasureBonus));
+		}
+		this.setPotionChars(new Vector<Powerup>());
+		for(int i=0;i<super.getPotionLength();i++){ 
+			this.getPotionChars().add(new Powerup(super.getPotion(i), "potion", potionHP));
+		}
+		syncAlive();
+	}
+	
+	public void updateGame(int heroMovement){
+		if(!gameHalted){
+			updateHero(heroMovement);
+			updateGameState();
+			updateViewport();
+		}
+	}
+
+	protected void updateHero(int heroMovement){
+		moveHero(heroMovement, true);
+	}
+	
+	/**
+	 * Moves the hero one step and resolves whatever it walks into.
+	 * @return the low bits of an undo record (step, moved flag, entity kind and index)
+	 */
+	protected int moveHero(int heroMovement, boolean logEvents){
+		int cHeroX = hero.getX();
+		int cHeroY = hero.getY();
+		int record = RECORD_STAY;
+		if(heroMovement==UP){ cHeroY--; record = UP; }
+		if(heroMovement==RIGHT){ cHeroX++; record = RIGHT; }
+		if(heroMovement==DOWN){ cHeroY++; record = DOWN; }
+		if(heroMovement==LEFT){ cHeroX--; record = LEFT; }
+		if(this.isWithinBounds(cHeroX, cHeroY) && this.isPassable(cHeroX, cHeroY)){
+			int rIndex = this.getRewardIndex(cHeroX, cHeroY);
+			int pIndex = this.getPotionIndex(cHeroX, cHeroY);
+			int mIndex = this.getMonsterIndex(cHeroX, cHeroY);
+			if(mIndex!=-1){ 
+				ensureOwnEntities();
+				Monster monster = monsterChars.get(mIndex);
+				if(logEvents){ logEvent(monster.eventCollision(hero)); } else { monster.applyCollision(hero); }
+				monstersAlive.clear(mIndex);
+				entityHash ^= hashKeys.monsters[mIndex];
+				record |= (RECORD_MONSTER<<RECORD_KIND_SHIFT) | (mIndex<<RECORD_INDEX_SHIFT);
+			} else if(rIndex!=-1){ 
+				ensureOwnEntities();
+				Reward reward = rewardChars.get(rIndex);
+				if(logEvents){ logEvent(reward.eventCollision(hero)); } else { reward.applyCollision(hero); }
+				rewardsAlive.clear(rIndex);
+				entityHash ^= hashKeys.rewards[rIndex];
+				record |= (RECORD_REWARD<<RECORD_KIND_SHIFT) | (rIndex<<RECORD_INDEX_SHIFT);
+			} else if(pIndex!=-1){ 
+				ensureOwnEntities();
+				Powerup potion = potionChars.get(pIndex);
+				if(logEvents){ logEvent(potion.eventCollision(hero)); } else { potion.applyCollision(hero); }
+				potionsAlive.clear(pIndex);
+				entityHash ^= hashKeys.potions[pIndex];
+				record |= (RECORD_POTION<<RECORD_KIND_SHIFT) | (pIndex<<RECORD_INDEX_SHIFT);
+			} else if(this.isExit(cHeroX,cHeroY) && !entrance.isAt(cHeroX,cHeroY)){ 
+				hero.setPosition(cHeroX,cHeroY);
+				if(logEvents){ logEvent("Hero reaches the exit and completes the level."); }
+				gameHalted = true;
+			} else {
+				hero.setPosition(cHeroX,cHeroY);
+			}
+
+            //Update visited matrix
+            incVisited(cHeroX,cHeroY);
+			actionsTaken++;
+			record |= RECORD_MOVED;
+		}
+		return record;
+	}
+	
+	// ----------------------------------------------------------------
+	// APPLY / UNDO (for tree search on a single mutable map)
+	// ----------------------------------------------------------------
+	// an undo record is a long: bits 0-2 hold the step taken (a direction, or 
+	// RECORD_STAY), then the flags, the collided entity, the hero's previous 
+	// HP and finally one bit per tile of the view window that became explored
+	static final int RECORD_STAY = 4;
+	static final int RECORD_MOVED = 1<<3;
+	static final int RECORD_HALTED = 1<<4;
+	static final int RECORD_KIND_SHIFT = 5;
+	static final int RECORD_MONSTER = 1;
+	static final int RECORD_REWARD = 2;
+	static final int RECORD_POTION = 3;
+	static final int RECORD_INDEX_SHIFT = 7;
+	static final int RECORD_HP_SHIFT = 23;
+	static final int RECORD_VIEW_SHIFT = 39;	// leaves 25 bits, the window size for viewRange 2
+	
+	/**
+	 * Plays one action like {@link #updateGame(int)}, but without writing to 
+	 * the event log, and returns a record that {@link #undo(long)} can use to 
+	 * take the action back. Records must be undone in reverse order.
+	 */
+	public long applyMove(int heroMovement){
+		long record = ((long)(hero.getHitpoints() & 0xFFFF))<<RECORD_HP_SHIFT;
+		if(gameHalted){ return record | RECORD_HALTED; }
+		record |= moveHero(heroMovement, false);
+		updateGameState();
+		if((record & RECORD_MOVED)!=0){
+			long exploredBefore = getExploredWindow(hero.getX(), hero.getY());
+			updateViewport();
+			long newlyExplored = getExploredWindow(hero.getX(), hero.getY()) & ~exploredBefore;
+			record |= newlyExplored<<RECORD_VIEW_SHIFT;
+		}
+		return record;
+	}
+	
+	/**
+	 * Takes back the action that produced the given record: hero position, HP 
+	 * and score, the entity it collided with, the visit counter, actionsTaken, 
+	 * the explored tiles and the halted flag are restored exactly.
+	 */
+	public void undo(long record){
+		if((record & RECORD_HALTED)!=0){ return; }
+		if((record & RECORD_MOVED)!=0){
+			int heroX = hero.getX();
+			int heroY = hero.getY();
+			clearExploredWindow(heroX, heroY, record>>>RECORD_VIEW_SHIFT);
+			int tile = getTileIndex(heroX, heroY);
+			visited[tile]--;
+			setVisitedTile(tile, visited[tile]>0);
+			actionsTaken--;
+			int kind = (int)(record>>>RECORD_KIND_SHIFT) & 3;
+			int index = (int)(record>>>RECORD_INDEX_SHIFT) & 0xFFFF;
+			if(kind!=0){ ensureOwnEntities(); }
+			if(kind==RECORD_MONSTER){
+				Monster monster = monsterChars.get(index);
+				monster.setHitpoints(monster.getStartingHitpoints());
+				monstersAlive.set(index);
+				entityHash ^= hashKeys.monsters[index];
+			} else if(kind==RECORD_REWARD){
+				Reward reward = rewardChars.get(index);
+				reward.setHitpoints(reward.getStartingHitpoints());
+				hero.addToScore(-reward.getTreasureBonus());
+				rewardsAlive.set(index);
+				entityHash ^= hashKeys.rewards[index];
+			} else if(kind==RECORD_POTION){
+				Powerup potion = potionChars.get(index);
+				potion.setHitpoints(potion.getStartingHitpoints());
+				hero.addToScore(-potion.getTreasureBonus());
+				potionsAlive.set(index);
+				entityHash ^= hashKeys.potions[index];
+			}
+			int step = (int)record & 7;
+			if(step==UP){ heroY++; }
+			if(step==RIGHT){ heroX--; }
+			if(step==DOWN){ heroY--; }
+			if(step==LEFT){ heroX++; }
+			hero.setPosition(heroX, heroY);
+			hero.setHitpoints((int)(record>>>RECORD_HP_SHIFT) & 0xFFFF);
+			gameHalted = false;
+			updateViewport();
+		}
+	}
+	
+	/** @return one bit per tile of the (2*viewRange+1)^2 window around (centerX,centerY) that is explored */
+	protected long getExploredWindow(int centerX, int centerY){
+		long result = 0;
+		int bit = 0;
+		for(int x=-viewRange;x<=viewRange;x++){
+			for(int y=-viewRange;y<=viewRange;y++){
+				if(isWithinBounds(centerX+x,centerY+y) && explored.get(getTileIndex(centerX+x,centerY+y))){ result |= 1L<<bit; }
+				bit++;
+			}
+		}
+		return result;
+	}
+	protected void clearExploredWindow(int centerX, int centerY, long window){
+		int bit = 0;
+		for(int x=-viewRange;x<=viewRange;x++){
+			for(int y=-viewRange;y<=viewRange;y++){
+				if((window & (1L<<bit))!=0){ explored.clear(getTileIndex(centerX+x,centerY+y)); }
+				bit++;
+			}
+		}
+	}
+	
+	// the occupancy index is static and shared with clones; liveness comes from the bitboards
+	@Override
+	public int getMonsterIndex(int x, int y){ return getAliveIndex(x,y,OCCUPANT_MONSTER,monstersAlive); }
+	@Override
+	public int getRewardIndex(int x, int y){ return getAliveIndex(x,y,OCCUPANT_REWARD,rewardsAlive); }
+	@Override
+	public int getPotionIndex(int x, int y){ return getAliveIndex(x,y,OCCUPANT_POTION,potionsAlive); }
+	
+	protected int getAliveIndex(int x, int y, int kind, BitBoard alive){
+		int index = getOccupantIndex(x,y,kind);
+		if(index>=0 && alive.get(index)){ return index; }
+		return -1;
+	}
+	
+	public BoolGridView getDeadMonsterGrid(){ return getOccupantGrid(OCCUPANT_MONSTER).andNot(getMonsterGrid()); }
+	public BoolGridView getDeadRewardGrid(){ return getOccupantGrid(OCCUPANT_REWARD).andNot(getRewardGrid()); }
+	public BoolGridView getDeadPotionGrid(){ return getOccupantGrid(OCCUPANT_POTION).andNot(getPotionGrid()); }
+	
+	protected BoolGridView getOccupantGrid(final int kind){
+		return new BoolGridView(){
+			public int getSizeX(){ return mapSizeX; }
+			public int getSizeY(){ return mapSizeY; }
+			public boolean get(int x, int y){ return getOccupantIndex(x,y,kind)>=0; }
+		};
+	}
+	
+	@Override
+	public boolean[][] getMonsterArray(){ return getEntityArray(monsters,monstersAlive,true); }
+	public boolean[][] getDeadMonsterArray(){ return getEntityArray(monsters,monstersAlive,false); }
+	@Override
+	public boolean[][] getRewardArray(){ return getEntityArray(rewards,rewardsAlive,true); }
+	public boolean[][] getDeadRewardArray(){ return getEntityArray(rewards,rewardsAlive,false); }
+	@Override
+	public boolean[][] getPotionArray(){ return getEntityArray(potions,potionsAlive,true); }
+	public boolean[][] getDeadPotionArray(){ return getEntityArray(potions,potionsAlive,false); }
+	
+	protected boolean[][] getEntityArray(Vector<Point2D> positions, BitBoard alive, boolean aliveValue){
+		boolean[][] result = new boolean[mapSizeX][mapSizeY];
+		for(int i=0;i<positions.size();i++){
+			if(alive.get(i)==aliveValue){
+				result[(int)(positions.get(i).x)][(int)(positions.get(i).y)]=true;
+			}
+		}
+		return result;
+	}
+	
+	/** Rebuilds the liveness layers from the entity objects. */
+	protected void syncAlive(){
+		syncAlive(monsterChars,monstersAlive);
+		syncAlive(rewardChars,rewardsAlive);
+		syncAlive(potionChars,potionsAlive);
+		syncMonsterDamage();
+	}
+	protected void syncMonsterDamage(){
+		monsterDamage = new int[monsterChars==null ? 0 : monsterChars.size()];
+		for(int i=0;i<monsterDamage.length;i++){ monsterDamage[i] = monsterChars.get(i).getDamage(); }
+	}
+	protected void syncAlive(Vector<? extends GameCharacter> entities, BitBoard alive){
+		alive.clearAll();
+		for(int i=0;entities!=null && i<entities.size() && i<alive.size();i++){ alive.set(i, entities.get(i).isAlive()); }
+		if(hashKeys!=null){ entityHash = computeEntityHash(); }
+	}
+	
+	protected void updateGameState(){
+		// game logic (monster movement, hp lost, etc.)
+		int cHeroX = hero.getX();
+		int cHeroY = hero.getY();
+		// check if monster adjacent to hero
+		if(!hero.isAlive()){ gameHalted = true; }
+	}
+	
+	/**
+	 * Refreshes the viewport, currentView and explored around the hero. Only 
+	 * the tiles of the previous view are cleared and no memory is allocated.
+	 * Visibility follows the same rules as {@link #isWithinViewRange(int, int)}.
+	 */
+	protected void updateViewport(){
+		for(int i=0;i<viewFootprintSize;i++){ currentView.clear(viewFootprint[i]); }
+		viewFootprintSize = 0;
+		int heroX = hero.getX();
+		int heroY = hero.getY();
+		int windowSize = 2*viewRange+1;
+		for(int cell=0;cell<viewRule.length;cell++){
+			int view_x = cell/windowSize;
+			int view_y = cell%windowSize;
+			int glob_x = heroX+view_x-viewRange;
+			int glob_y = heroY+view_y-viewRange;
+			boolean visible = (viewRule[cell]!=VIEW_NEVER && isWithinBounds(glob_x,glob_y));
+			if(visible && viewRule[cell]==VIEW_IF_PASSABLE){
+				visible = isPassable(heroX+viewCheckX[cell], heroY+viewCheckY[cell]);
+			}
+			if(visible){
+				int tile = getTileIndex(glob_x,glob_y);
+				viewport[view_x][view_y]=getViewedTile(glob_x,glob_y,tile);
+				// UPDATE EXPLORATION TABLE
+				explored.set(tile);
+				currentView.set(tile);
+				viewFootprint[viewFootprintSize++] = tile;
+			} else {
+				viewport[view_x][view_y]=NONE;
+			}
+		}
+	}
+	
+	/** @return what the viewport shows on a visible tile: WALL, MONSTER, TREASURE, POTION, EXIT or EMPTY */
+	protected int getViewedTile(int x, int y, int tile){
+		if(walls.get(tile)){ return WALL; }
+		int occupant = occupancy[tile];
+		int index = occupant & 0xFFFF;
+		switch(occupant>>>OCCUPANT_SHIFT){
+			case OCCUPANT_MONSTER: return monstersAlive.get(index) ? MONSTER : EMPTY;
+			case OCCUPANT_REWARD: return rewardsAlive.get(index) ? TREASURE : EMPTY;
+			case OCCUPANT_POTION: return potionsAlive.get(index) ? POTION : EMPTY;
+			// isExit() excludes the entrance, which has always shown up as EMPTY
+			case OCCUPANT_EXIT: return isExit(x,y) ? EXIT : EMPTY;
+		}
+		return EMPTY;
+	}
+	
+	/** Precomputes, for each cell of the view window, how isWithinViewRange() decides its visibility. */
+	protected void initViewRules(){
+		int windowSize = 2*viewRange+1;
+		viewRule = new int[windowSize*windowSize];
+		viewCheckX = new int[windowSize*windowSize];
+		viewCheckY = new int[windowSize*windowSize];
+		for(int cell=0;cell<viewRule.length;cell++){
+			int rel_x = cell/windowSize-viewRange;
+			int rel_y = cell%windowSize-viewRange;
+			viewRule[cell] = VIEW_NEVER;
+			if(viewRange==1){ 
+				if((Math.abs(rel_x)<=1 && rel_y==0) || (Math.abs(rel_y)<=1 && rel_x==0)){ viewRule[cell] = VIEW_ALWAYS; }
+			} else if(viewRange==2){
+				if(Math.abs(rel_x)<=1 && Math.abs(rel_y)<=1){ 
+					viewRule[cell] = VIEW_ALWAYS; 
+				} else if((Math.abs(rel_x)==2 && rel_y==0) || (Math.abs(rel_y)==2 && rel_x==0)){ 
+					viewRule[cell] = VIEW_IF_PASSABLE;
+					viewCheckX[cell] = rel_x/2;
+					viewCheckY[cell] = rel_y/2;
+				}
+			} else if(rel_x*rel_x+rel_y*rel_y<=viewRange*viewRange){
+				viewRule[cell] = VIEW_ALWAYS;
+			}
+		}
+	}
+	
+	protected boolean isWithinViewRange(Point2D glob_pos){ 
+		return isWithinViewRange((int)(glob_pos.x),(int)(glob_pos.y)); 
+	}
+	protected boolean isWithinViewRange(int glob_x, int glob_y){
+		if(!isWithinBounds(glob_x,glob_y)){ return false; }	// sanity check
+		int rel_x = (int)(glob_x-hero.getX());
+		int rel_y = (int)(glob_y-hero.getY());
+		if(viewRange==1){ 
+			if(Math.abs(rel_x)<=1 && rel_y==0){ return true; }
+			if(Math.abs(rel_y)<=1 && rel_x==0){ return true; }
+			return false;
+		}
+		if(viewRange==2){
+			//if(Math.abs(rel_x)==2 && rel_y==0){ return true; }
+			//if(Math.abs(rel_y)==2 && rel_x==0){ return true; }
+			if(Math.abs(rel_x)<=1 && Math.abs(rel_y)<=1){ return true; }
+			if(rel_x==2 && rel_y==0 && this.isPassable(glob_x-1, glob_y)){ return true; }
+			if(rel_x==-2 && rel_y==0 && this.isPassable(glob_x+1, glob_y)){ return true; }
+			if(rel_y==2 && rel_x==0 && this.isPassable(glob_x, glob_y-1)){ return true; }
+			if(rel_y==-2 && rel_x==0 && this.isPassable(glob_x, glob_y+1)){ return true; }
+			return false;
+		}
+		return(rel_x*rel_x+rel_y*rel_y<=viewRange*viewRange);
+	}
+	
+	protected void clearCurrentView(){
+		currentView.clearAll();
+		viewFootprintSize = 0;
+	}
+	
+	protected void clearExplored(){
+		explored.clearAll();
+	}
+
+	protected void clearVisited(){
+		visitedTiles.clearAll();
+		visitedHash = 0;
+		Arrays.fill(visited, 0);
+	}
+	
+	
+	public boolean isExit(int x, int y){ 
+		int index = getExitIndex(x,y);
+		if(index>=0 && !entrance.isAt(x, y)){ return true; }
+		return false;
+	}
+	public boolean isEntrance(int x, int y){ 
+		return entrance.isAt(x, y);
+	}
+	public boolean isHero(int x, int y){ 
+		if(hero!=null && hero.getX()==x && hero.getY()==y){ return true; }
+		return false;
+	}
+	public boolean isMonster(int x, int y){ 
+		if(getMonsterIndex(x,y)>=0){ return true; }
+		return false;
+	}
+	public boolean isReward(int x, int y){ 
+		if(getRewardIndex(x,y)>=0){ return true; }
+		return false;
+	}
+	public boolean isPotion(int x, int y){ 
+		if(getPotionIndex(x,y)>=0){ return true; }
+		return false;
+	}
+	
+	protected void clearEventLog(){
+		eventLog = new Vector<String>();
+	}
+	public void logEvent(String event){ 
+		if(eventLog==null){ clearEventLog(); }
+		eventLog.add(event);
+	}
+	public String getLastEvent(){ 
+		if(eventLog!=null && !eventLog.isEmpty()){ return eventLog.lastElement(); }
+		return "";
+	}
+
+	// entity getters hand out mutable objects, so they stop sharing them with clones first
+    public Vector<Reward> getRewardChars() { ensureOwnEntities(); return rewardChars; }
+    public void setRewardChars(Vector<Reward> rewardChars) { ensureOwnEntities(); this.rewardChars = rewardChars; syncAlive(rewardChars,rewardsAlive); }
+    public Reward getRewardChar(int index) { ensureOwnEntities(); return this.rewardChars.get(index); }
+    public Vector<Powerup> getPotionChars() { ensureOwnEntities(); return potionChars; }
+    public void setPotionChars(Vector<Powerup> potionChars) { ensureOwnEntities(); this.potionChars = potionChars; syncAlive(potionChars,potionsAlive); }
+    public Powerup getPotionChar(int index) { ensureOwnEntities(); return this.potionChars.get(index); }
+    public Vector<Monster> getMonsterChars() { ensureOwnEntities(); return monsterChars; }
+    public void setMonsterChars(Vector<Monster> monsterChars) { ensureOwnEntities(); this.monsterChars = monsterChars; syncAlive(monsterChars,monstersAlive); syncMonsterDamage(); }
+	public Monster getMonsterChar(int index) { ensureOwnEntities(); return this.monsterChars.get(index); }
+	
+	public void incVisited(int x, int y){ 
+		int tile = getTileIndex(x,y);
+		visited[tile]++; 
+		setVisitedTile(tile, visited[tile]>0);
+	}
+	public void setVisited(int x, int y, int value){ 
+		int tile = getTileIndex(x,y);
+		visited[tile] = value; 
+		setVisitedTile(tile, value>0);
+	}
+	protected void setVisitedTile(int tile, boolean value){
+		if(visitedTiles.get(tile)==value){ return; }
+		visitedTiles.set(tile, value);
+		visitedHash ^= hashKeys.visitedTile[tile];
+	}
+	
+	// ----------------------------------------------------------------
+	// SNAPSHOTS
+	// ----------------------------------------------------------------
+	// layout: version, dungeon content hash, flags (halted, has hero), entrance, 
+	// hero x, y, HP and score, actionsTaken, alive bits of monsters, rewards and 
+	// potions, monster damage, explored bits, then the non-zero visit counters 
+	// as (tiles skipped, count) pairs
+	final static int SNAPSHOT_VERSION = 1;
+	final static int SNAPSHOT_HALTED = 1;
+	final static int SNAPSHOT_HERO = 2;
+	
+	@Override
+	public long getContentHash(){ return contentHash; }
+	
+	/**
+	 * @return the mutable game state as a compact byte array. The dungeon 
+	 * itself is only referenced by its content hash, so the snapshot can be 
+	 * restored into any PlayMap built from an identical dungeon. Logs are not 
+	 * included.
+	 */
+	public byte[] toSnapshot(){
+		int maxSize = 1 + 8 + 1 + 9*SnapshotCodec.maxVarintSize() 
+				+ SnapshotCodec.bitsSize(monstersAlive) + SnapshotCodec.bitsSize(rewardsAlive) 
+				+ SnapshotCodec.bitsSize(potionsAlive) + SnapshotCodec.bitsSize(explored) 
+				+ (monsters.size()+2*visitedTiles.count())*SnapshotCodec.maxVarintSize();
+		SnapshotCodec out = new SnapshotCodec(new byte[maxSize], 0);
+		out.putByte(SNAPSHOT_VERSION);
+		out.putLong(contentHash);
+		out.putByte((gameHalted ? SNAPSHOT_HALTED : 0) | (hero!=null ? SNAPSHOT_HERO : 0));
+		out.putVarint((int)(entrance.x));
+		out.putVarint((int)(entrance.y));
+		if(hero!=null){
+			out.putVarint(hero.getX());
+			out.putVarint(hero.getY());
+			out.putSigned(hero.getHitpoints());
+			out.putSigned(hero.getScore());
+		}
+		out.putVarint(actionsTaken);
+		out.putBits(monstersAlive);
+		out.putBits(rewardsAlive);
+		out.putBits(potionsAlive);
+		for(int i=0;i<monsterDamage.length;i++){ out.putSigned(monsterDamage[i]); }
+		out.putBits(explored);
+		out.putVarint(visitedTiles.count());
+		int previous = -1;
+		for(int tile=visitedTiles.nextSetBit(0);tile>=0;tile=visitedTiles.nextSetBit(tile+1)){
+			out.putVarint(tile-previous-1);
+			out.putVarint(visited[tile]);
+			previous = tile;
+		}
+		return Arrays.copyOf(out.data, out.position);
+	}
+	
+	/**
+	 * Replaces the game state with the one stored by {@link #toSnapshot()}. 
+	 * The viewport is recomputed; the logs are left as they are.
+	 * @throws IllegalArgumentException if the snapshot was taken on a different dungeon
+	 */
+	public void restoreSnapshot(byte[] snapshot){
+		SnapshotCodec in = new SnapshotCodec(snapshot, 0);
+		if(in.getByte()!=SNAPSHOT_VERSION){ 
+			throw new IllegalArgumentException("Unknown snapshot version"); 
+		}
+		if(in.getLong()!=contentHash){ 
+			throw new IllegalArgumentException("Snapshot was taken on a different dungeon"); 
+		}
+		int flags = in.getByte();
+		gameHalted = (flags & SNAPSHOT_HALTED)!=0;
+		int entranceX = in.getVarint();
+		int entranceY = in.getVarint();
+		if(!entrance.isAt(entranceX, entranceY)){ entrance = new Point2D(entranceX, entranceY); }
+		if((flags & SNAPSHOT_HERO)!=0){
+			if(hero==null){ hero = new Hero(entrance,startingHP,"hero"); }
+			int heroX = in.getVarint();
+			int heroY = in.getVarint();
+			hero.setPosition(heroX, heroY);
+			hero.setHitpoints(in.getSigned());
+			hero.setScore(in.getSigned());
+		} else {
+			hero = null;
+		}
+		actionsTaken = in.getVarint();
+		// only entities whose state differs from the snapshot are touched
+		ensureOwnEntities();
+		restoreAlive(in, monstersAlive, monsterChars, hashKeys.monsters);
+		restoreAlive(in, rewardsAlive, rewardChars, hashKeys.rewards);
+		restoreAlive(in, potionsAlive, potionChars, hashKeys.potions);
+		for(int i=0;i<monsterDamage.length;i++){
+			int damage = in.getSigned();
+			if(damage!=monsterDamage[i]){
+				monsterChars.get(i).setDamage(damage);
+				monsterDamage = monsterDamage.clone();
+				monsterDamage[i] = damage;
+			}
+		}
+		in.getBits(explored);
+		for(int tile=visitedTiles.nextSetBit(0);tile>=0;tile=visitedTiles.nextSetBit(tile+1)){ visited[tile] = 0; }
+		visitedTiles.clearAll();
+		visitedHash = 0;
+		int count = in.getVarint();
+		int tile = -1;
+		for(int i=0;i<count;i++){
+			tile += in.getVarint()+1;
+			visited[tile] = in.getVarint();
+			setVisitedTile(tile, visited[tile]>0);
+		}
+		clearCurrentView();
+		if(hero!=null){ updateViewport(); }
+	}
+	
+	protected void restoreAlive(SnapshotCodec in, BitBoard alive, Vector<? extends GameCharacter> entities, long[] keys){
+		int bytes = SnapshotCodec.bitsSize(alive);
+		for(int w=0;w<alive.getWordCount();w++){
+			long word = in.getWord(Math.min(8, bytes-w*8));
+			long changed = word ^ alive.getWord(w);
+			alive.setWord(w, word);
+			while(changed!=0){
+				int i = w*64+Long.numberOfTrailingZeros(changed);
+				changed &= changed-1;
+				GameCharacter entity = entities.get(i);
+				entity.setHitpoints(alive.get(i) ? entity.getStartingHitpoints() : 0);
+				entityHash ^= keys[i];
+			}
+		}
+	}
+	
+	// ----------------------------------------------------------------
+	// ZOBRIST HASH
+	// ----------------------------------------------------------------
+	
+	/**
+	 * @return a 64-bit hash of the game state: hero tile, hero HP bucket, the 
+	 * alive flag of every monster, reward and potion and (by default) the set 
+	 * of visited tiles. Costs O(1); changes made through the entity objects 
+	 * directly are only picked up after the next resetLevel() or set*Chars().
+	 */
+	public long getHash(){
+		long result = entityHash;
+		if(hashVisited){ result ^= visitedHash; }
+		if(hero!=null){ result ^= getHeroHash(); }
+		return result;
+	}
+	
+	/** Recomputes {@link #getHash()} from scratch; mainly for checking the incremental value. */
+	public long computeHash(){
+		long result = computeEntityHash();
+		if(hashVisited){ result ^= ZobristKeys.hash(hashKeys.visitedTile, visitedTiles); }
+		if(hero!=null){ result ^= getHeroHash(); }
+		return result;
+	}
+	
+	/**
+	 * @param hpBucket hero hitpoints are divided by this before hashing, so 
+	 * states whose HP differs by less than a bucket can share a hash
+	 * @param includeVisited whether the set of visited tiles is part of the hash
+	 */
+	public void setHashOptions(int hpBucket, boolean includeVisited){
+		hashHpBucket = Math.max(1, hpBucket);
+		hashVisited = includeVisited;
+	}
+	
+	protected long getHeroHash(){
+		int x = hero.getX();
+		int y = hero.getY();
+		long result = isWithinBounds(x,y) ? hashKeys.heroTile[getTileIndex(x,y)] : 0;
+		int bucket = Math.max(0, hero.getHitpoints())/hashHpBucket;
+		return result ^ hashKeys.hitpoints[Math.min(bucket, ZobristKeys.HITPOINT_KEYS-1)];
+	}
+	
+	protected long computeEntityHash(){
+		return ZobristKeys.hash(hashKeys.monsters, monstersAlive) 
+				^ ZobristKeys.hash(hashKeys.rewards, rewardsAlive) 
+				^ ZobristKeys.hash(hashKeys.potions, potionsAlive);
+	}
+	
+	public String toASCII(){ return toASCII(true); }
+	public String toASCII(boolean includeHP){
+		String result="";
+		for(int y=0;y<mapSizeY;y++){
+			for(int x=0;x<mapSizeX;x++){
+				if(impassable[x][y]){ 
+					result+="#"; 
+				} else if(isHero(x,y)){
+					result+="@"; 
+				} else if(isEntrance(x,y)){
+					result+="E"; 
+				} else if(isExit(x,y)){
+					result+="X"; 
+				} else if(isMonster(x,y)){
+					result+="m"; 
+				} else if(isReward(x,y)){
+					result+="r"; 
+				} else if(isPotion(x,y)){
+					result+="p"; 
+				} else {
+					result+=".";
+				}				
+			}
+			result+="\n";
+		}
+		if(includeHP){
+			result+=hero.getHitpoints()+"\n";
+		}
+		return result;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package dungeon.play;
+
+/**
+ * Byte buffer with a cursor, used by PlayMap to write and read its state 
+ * snapshots. Integers are written as LEB128 varints (zigzag for signed 
+ * values), bit boards as their bytes, least significant first.
+ */
+class SnapshotCodec {
+	byte[] data;
+	int position;
+	
+	SnapshotCodec(byte[] data, int position){
+		this.data = data;
+		this.position = position;
+	}
+	
+	void putByte(int value){ data[position++] = (byte)value; }
+	int getByte(){ return data[position++] & 0xFF; }
+	
+	void putLong(long value){ putWord(value, 8); }
+	long getLong(){ return getWord(8); }
+	
+	void putVarint(int value){
+		while((value & ~0x7F)!=0){
+			data[position++] = (byte)((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[position++] = (byte)value;
+	}
+	int getVarint(){
+		int result = 0;
+		for(int shift=0;shift<32;shift+=7){
+			int b = data[position++];
+			result |= (b & 0x7F)<<shift;
+			if(b>=0){ return result; }
+		}
+		throw new IllegalArgumentException("Malformed varint in snapshot");
+	}
+	
+	void putSigned(int value){ putVarint((value<<1) ^ (value>>31)); }
+	int getSigned(){
+		int value = getVarint();
+		return (value>>>1) ^ -(value & 1);
+	}
+	
+	void putBits(BitBoard board){
+		int bytes = bitsSize(board);
+		for(int w=0;w<board.words.length;w++){ putWord(board.words[w], Math.min(8, bytes-w*8)); }
+	}
+	void getBits(BitBoard board){
+		int bytes = bitsSize(board);
+		for(int w=0;w<board.words.length;w++){ board.words[w] = getWord(Math.min(8, bytes-w*8)); }
+	}
+	
+	/** Writes the lowest bytes of a word, least significant first. */
+	void putWord(long value, int bytes){
+		for(int i=0;i<bytes;i++){ data[position++] = (byte)(value>>>(i*8)); }
+	}
+	long getWord(int bytes){
+		long result = 0;
+		for(int i=0;i<bytes;i++){ result |= ((long)(data[position++] & 0xFF))<<(i*8); }
+		return result;
+	}
+	
+	/** @return the largest number of bytes putVarint can write */
+	static int maxVarintSize(){ return 5; }
+	static int bitsSize(BitBoard board){ return (board.size+7)>>>3; }
+}
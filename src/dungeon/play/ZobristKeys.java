@@ -0,0 +1,51 @@
+package dungeon.play;
+
+import util.statics.HashUtils;
+
+/**
+ * Random 64-bit keys for the Zobrist hash of a PlayMap. One set is built per 
+ * dungeon layout and shared by all its clones. The keys are seeded from the 
+ * layout itself (and not from RandomNumberManager), so hashes are reproducible, 
+ * different dungeons get different keys, and building them does not disturb 
+ * the game's random sequence.
+ */
+class ZobristKeys {
+	final static int HITPOINT_KEYS = 256;
+	final static long SEED = 0x2545F4914F6CDD1DL;
+	
+	final long[] heroTile;
+	final long[] hitpoints;
+	final long[] monsters;
+	final long[] rewards;
+	final long[] potions;
+	final long[] visitedTile;
+	long state;
+	
+	ZobristKeys(long layoutSeed, int tiles, int monsterCount, int rewardCount, int potionCount){
+		state = SEED ^ layoutSeed;
+		heroTile = nextKeys(tiles);
+		hitpoints = nextKeys(HITPOINT_KEYS);
+		monsters = nextKeys(monsterCount);
+		rewards = nextKeys(rewardCount);
+		potions = nextKeys(potionCount);
+		visitedTile = nextKeys(tiles);
+	}
+	
+	long[] nextKeys(int count){
+		long[] result = new long[count];
+		for(int i=0;i<count;i++){ result[i] = nextKey(); }
+		return result;
+	}
+	
+	// splitmix64
+	long nextKey(){
+		return HashUtils.mix(state += 0x9E3779B97F4A7C15L);
+	}
+	
+	/** XOR of the keys of all set bits in the board */
+	static long hash(long[] keys, BitBoard board){
+		long result = 0;
+		for(int i=board.nextSetBit(0);i>=0;i=board.nextSetBit(i+1)){ result ^= keys[i]; }
+		return result;
+	}
+}
@@ -0,0 +1,92 @@
+package experiment;
+
+import java.util.Scanner;
+import java.io.File;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.BatchPlayMap;
+import dungeon.play.PlayMap;
+import util.statics.RandomNumberManager;
+
+/**
+ * Measures game steps per second for N concurrent random rollouts on each 
+ * dungeon: one PlayMap per game stepped with updateGame(), against a 
+ * BatchPlayMap stepped serially and in parallel. Halted games are restarted 
+ * after every tick so all N games keep running.
+ */
+public class BatchBenchmark {
+	final int games = 10000;
+	final int actionSets = 64;
+	final long measureMillis = 1000;
+	int[][] actions;
+	
+	public BatchBenchmark(){
+		actions = new int[actionSets][games];
+		for(int i=0;i<actionSets;i++){
+			for(int g=0;g<games;g++){ actions[i][g] = RandomNumberManager.getRandomInt(0, 4); }
+		}
+	}
+	
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+		
+		double objectRate = measureObjects(testPlay);
+		BatchPlayMap batch = new BatchPlayMap(testPlay, games);
+		measureBatch(batch, false);
+		double batchRate = measureBatch(batch, false);
+		double parallelRate = measureBatch(batch, true);
+		System.out.println(filename+";"+(long)objectRate+";"+(long)batchRate+";"+(long)parallelRate);
+	}
+	
+	protected double measureObjects(PlayMap template){
+		PlayMap[] maps = new PlayMap[games];
+		for(int g=0;g<games;g++){ maps[g] = template.clone(); }
+		long steps = 0;
+		int tick = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			int[] tickActions = actions[tick++ % actionSets];
+			for(int g=0;g<games;g++){
+				if(maps[g].isGameHalted()){ maps[g] = template.clone(); }
+				maps[g].updateGame(tickActions[g]);
+				steps++;
+			}
+			now = System.nanoTime();
+		}
+		return steps/((now-start)/1e9);
+	}
+	
+	protected double measureBatch(BatchPlayMap batch, boolean parallel){
+		long steps = 0;
+		int tick = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			int[] tickActions = actions[tick++ % actionSets];
+			steps += parallel ? batch.stepParallel(tickActions) : batch.step(tickActions);
+			batch.resetHaltedGames();
+			now = System.nanoTime();
+		}
+		return steps/((now-start)/1e9);
+	}
+	
+	public static void main(String[] args) {
+		BatchBenchmark exp = new BatchBenchmark();
+		System.out.println("map;PlayMap steps/s;batch steps/s;parallel batch steps/s ("+Runtime.getRuntime().availableProcessors()+" cores)");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package experiment;
+
+import java.util.Scanner;
+import java.io.File;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.PlayMap;
+
+/**
+ * Measures how many PlayMap copies per second can be made on each dungeon.
+ * The "rebuild" figure constructs a new PlayMap from the base dungeon, which is
+ * what clone() used to do (including all the pathfinding in finalizeSketch());
+ * the "clone" figure uses the current clone(), which shares the static layer.
+ */
+public class CloneBenchmark {
+	final int warmupIterations = 2000;
+	final long measureMillis = 1000;
+	PlayMap lastCopy;	// keeps the copies reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+
+		double rebuildRate = measureRebuild(testDungeon);
+		double cloneRate = measureClone(testPlay);
+		System.out.println(filename+";rebuild;"+(long)rebuildRate+";clone;"+(long)cloneRate+";speedup;"+(cloneRate/rebuildRate));
+	}
+
+	protected double measureRebuild(Dungeon dungeon){
+		for(int i=0;i<warmupIterations/10;i++){ lastCopy = new PlayMap(dungeon); }
+		long count = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			lastCopy = new PlayMap(dungeon);
+			count++;
+			now = System.nanoTime();
+		}
+		return count/((now-start)/1e9);
+	}
+
+	protected double measureClone(PlayMap map){
+		for(int i=0;i<warmupIterations;i++){ lastCopy = map.clone(); }
+		long count = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			lastCopy = map.clone();
+			count++;
+			now = System.nanoTime();
+		}
+		return count/((now-start)/1e9);
+	}
+
+	public static void main(String[] args) {
+		CloneBenchmark exp = new CloneBenchmark();
+		System.out.println("map;rebuild;copies/s;clone;copies/s;speedup;x");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
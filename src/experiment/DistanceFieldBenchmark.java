@@ -0,0 +1,80 @@
+package experiment;
+
+import java.util.Random;
+import java.util.Scanner;
+import java.io.File;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.DistanceField;
+import dungeon.play.PlayMap;
+
+/**
+ * Measures the cost of keeping a danger-weighted distance field up to date
+ * while a random agent plays (with undos, as a tree search would): the
+ * "repair" figure lets the field patch itself after each entity change, the
+ * "rebuild" figure recomputes it from scratch at the same points.
+ */
+public class DistanceFieldBenchmark {
+	final int goals = DistanceField.GOAL_REWARDS | DistanceField.GOAL_EXITS;
+	final float dangerWeight = 0.5f;
+	final int movesPerRun = 200;
+	final long measureMillis = 1000;
+	double checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+
+		measure(testPlay, false);
+		double repairTime = measure(testPlay, false);
+		measure(testPlay, true);
+		double rebuildTime = measure(testPlay, true);
+		System.out.println(filename+";repair;"+(long)repairTime+";rebuild;"+(long)rebuildTime+";speedup;"+(rebuildTime/repairTime));
+	}
+
+	/** @return nanoseconds per field update, over the moves that changed an entity */
+	protected double measure(PlayMap start, boolean rebuild){
+		Random random = new Random(1);
+		long updates = 0;
+		long elapsed = 0;
+		long end = System.nanoTime() + measureMillis*1000000L;
+		while(System.nanoTime()<end){
+			PlayMap map = start.clone();
+			DistanceField field = map.getDistanceField(goals, dangerWeight);
+			field.refresh();
+			long[] records = new long[movesPerRun];
+			int depth = 0;
+			for(int i=0;i<movesPerRun;i++){
+				int changesBefore = map.getMonstersKilled()+map.getRewardsCollected()+map.getPotionsDrunk();
+				if(depth>0 && random.nextInt(4)==0){
+					map.undo(records[--depth]);
+				} else {
+					records[depth++] = map.applyMove(random.nextInt(4));
+				}
+				if(map.getMonstersKilled()+map.getRewardsCollected()+map.getPotionsDrunk()==changesBefore){ continue; }
+				long before = System.nanoTime();
+				if(rebuild){ field.rebuild(); } else { field.refresh(); }
+				elapsed += System.nanoTime()-before;
+				checksum += field.getDistance(map.getHero().getX(), map.getHero().getY());
+				updates++;
+			}
+		}
+		return elapsed/(double)Math.max(1,updates);
+	}
+
+	public static void main(String[] args) {
+		DistanceFieldBenchmark exp = new DistanceFieldBenchmark();
+		System.out.println("map;repair;ns/update;rebuild;ns/update;speedup;x");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
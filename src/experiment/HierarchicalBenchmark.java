@@ -0,0 +1,89 @@
+package experiment;
+
+import java.util.Random;
+
+import dungeon.Dungeon;
+import dungeon.DungeonPaths;
+import libraries.GridGraph;
+import libraries.GridPathfinder;
+import libraries.HierarchicalGraph;
+
+/**
+ * Measures hierarchical mode on large random dungeons: the time and memory
+ * taken to build the abstract graph, the latency of a distance query through
+ * DungeonPaths, the latency of an exact A* between the same tiles, and how
+ * much longer the hierarchical distances are than the exact ones.
+ */
+public class HierarchicalBenchmark {
+	final double wallChance = 0.25;
+	final int queryPairs = 1000;
+	final int exactPairs = 50;
+	final long measureMillis = 1000;
+	long checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(int size, long seed){
+		Random random = new Random(seed);
+		Dungeon dungeon = new Dungeon(size, size);
+		for(int x=0;x<size;x++){
+			for(int y=0;y<size;y++){
+				if(random.nextDouble()<wallChance){ dungeon.setImpassable(x,y); }
+			}
+		}
+		DungeonPaths paths = dungeon.getPaths();
+		paths.init();
+		int[] pairs = new int[queryPairs*4];
+		for(int i=0;i<pairs.length;i+=4){
+			do {
+				for(int j=0;j<4;j++){ pairs[i+j] = random.nextInt(size); }
+			} while(!paths.isConnected(pairs[i],pairs[i+1],pairs[i+2],pairs[i+3]));
+		}
+
+		long before = System.nanoTime();
+		HierarchicalGraph hierarchy = paths.getHierarchy();
+		double buildMillis = (System.nanoTime()-before)/1e6;
+
+		measureQueries(paths, pairs);
+		double queryTime = measureQueries(paths, pairs);
+
+		GridGraph graph = paths.getGraph();
+		double ratio = 0;
+		long exactTime = 0;
+		for(int i=0;i<exactPairs*4;i+=4){
+			int start = graph.getTile(pairs[i],pairs[i+1]);
+			int goal = graph.getTile(pairs[i+2],pairs[i+3]);
+			long exactStart = System.nanoTime();
+			int[] exact = GridPathfinder.aStar(graph, start, goal);
+			exactTime += System.nanoTime()-exactStart;
+			int steps = exact.length-1;
+			ratio += steps==0 ? 1 : paths.getDistance(pairs[i],pairs[i+1],pairs[i+2],pairs[i+3])/steps;
+		}
+		System.out.println(size+"x"+size+";seed;"+seed+";nodes;"+hierarchy.getNodeCount()+";edges;"+hierarchy.getEdgeCount()+
+				";bytes;"+hierarchy.getMemoryFootprint()+";bytesPerTile;"+(hierarchy.getMemoryFootprint()/(double)(size*size))+
+				";buildMs;"+(long)buildMillis+";queryUs;"+(queryTime/1000)+";exactUs;"+(exactTime/1000.0/exactPairs)+";lengthRatio;"+(ratio/exactPairs));
+	}
+
+	/** @return average nanoseconds per distance query */
+	protected double measureQueries(DungeonPaths paths, int[] pairs){
+		long queries = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			for(int i=0;i<pairs.length && now<end;i+=4){
+				checksum += (long)paths.getDistance(pairs[i],pairs[i+1],pairs[i+2],pairs[i+3]);
+				queries++;
+				now = System.nanoTime();
+			}
+		}
+		return (now-start)/(double)queries;
+	}
+
+	public static void main(String[] args) {
+		HierarchicalBenchmark exp = new HierarchicalBenchmark();
+		System.out.println("map;seed;n;nodes;n;edges;n;bytes;n;bytesPerTile;n;buildMs;ms;queryUs;us;exactUs;us;lengthRatio;x");
+		int[] sizes = { 128, 256, 512, 1024 };
+		for(int i=0;i<sizes.length;i++){
+			exp.runBenchmark(sizes[i], 1);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package experiment;
+
+import java.util.Scanner;
+import java.io.File;
+
+import controllers.MCTSController;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.PlayMap;
+
+/**
+ * Plays each dungeon with an MCTSController on a wall-clock budget per
+ * decision and reports the search rate (iterations, i.e. rollouts, per second
+ * and per decision), the mean and worst decision latency and how the game ended.
+ */
+public class MCTSBenchmark {
+	final long budgetMillis = 40;
+	final int maxActions = 100;
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+		MCTSController agent = new MCTSController(testPlay, testPlay.getHero());
+		agent.setBudget(0, budgetMillis);
+		agent.getNextAction();	// warm-up, not played
+
+		long iterations = 0;
+		double worstMillis = 0;
+		double totalMillis = 0;
+		int actions = 0;
+		while(!testPlay.isGameHalted() && actions<maxActions){
+			testPlay.updateGame(agent.getNextAction());
+			iterations += agent.getLastIterations();
+			totalMillis += agent.getLastDecisionMillis();
+			worstMillis = Math.max(worstMillis, agent.getLastDecisionMillis());
+			actions++;
+		}
+		String outcome = testPlay.getHero().getHitpoints()<=0 ? "died" : testPlay.isGameHalted() ? "exit" : "unfinished";
+		System.out.println(filename+";itersPerSec;"+(long)(iterations*1000/Math.max(1e-9,totalMillis))+
+				";itersPerDecision;"+(iterations/Math.max(1,actions))+";meanMs;"+(totalMillis/Math.max(1,actions))+";worstMs;"+worstMillis+
+				";actions;"+actions+";outcome;"+outcome+";hp;"+testPlay.getHero().getHitpoints()+
+				";treasures;"+testPlay.getRewardsCollected()+";monsters;"+testPlay.getMonstersKilled());
+	}
+
+	public static void main(String[] args) {
+		MCTSBenchmark exp = new MCTSBenchmark();
+		System.out.println("map;itersPerSec;n/s;itersPerDecision;n;meanMs;ms;worstMs;ms;actions;n;outcome;-;hp;n;treasures;n;monsters;n");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package experiment;
+
+import java.util.Scanner;
+import java.io.File;
+
+import controllers.MCTSController;
+import controllers.ParallelMCTSController;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.PlayMap;
+
+/**
+ * Measures how the rollout rate of a decision scales with the number of
+ * threads: the first decision of each dungeon is searched repeatedly on a
+ * wall-clock budget by the single-threaded MCTSController and by
+ * ParallelMCTSController in tree-parallel and root-parallel mode with 1, 2,
+ * 4, ... threads up to the number of available processors.
+ */
+public class ParallelMCTSBenchmark {
+	final long budgetMillis = 40;
+	final int decisions = 10;
+
+	public void runBenchmark(String filename, int[] threadCounts){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+
+		MCTSController serial = new MCTSController(testPlay, testPlay.getHero());
+		String result = filename+";serial;"+(long)measure(serial);
+		for(int i=0;i<threadCounts.length;i++){
+			ParallelMCTSController tree = new ParallelMCTSController(testPlay, testPlay.getHero(), threadCounts[i]);
+			ParallelMCTSController root = new ParallelMCTSController(testPlay, testPlay.getHero(), threadCounts[i]);
+			root.setRootParallel(true);
+			result += ";threads;"+threadCounts[i]+";tree;"+(long)measure(tree)+";root;"+(long)measure(root);
+			tree.shutdown();
+			root.shutdown();
+		}
+		System.out.println(result);
+	}
+
+	/** @return iterations (rollouts) per second over a number of decisions, after one warm-up decision */
+	protected double measure(MCTSController agent){
+		agent.setBudget(0, budgetMillis);
+		agent.getNextAction();
+		long iterations = 0;
+		double millis = 0;
+		for(int i=0;i<decisions;i++){
+			agent.getNextAction();
+			iterations += agent.getLastIterations();
+			millis += agent.getLastDecisionMillis();
+		}
+		return iterations*1000/millis;
+	}
+
+	public static void main(String[] args) {
+		ParallelMCTSBenchmark exp = new ParallelMCTSBenchmark();
+		int processors = Runtime.getRuntime().availableProcessors();
+		int steps = 1;
+		while((1<<steps)<processors){ steps++; }
+		int[] threadCounts = new int[steps+1];
+		for(int i=0;i<steps;i++){ threadCounts[i] = 1<<i; }
+		threadCounts[steps] = processors;
+		if(processors==1){ threadCounts = new int[]{ 1, 2 }; }	// still exercises the parallel code path
+		System.out.println("map;serial;rollouts/s;then per thread count;threads;n;tree;rollouts/s;root;rollouts/s");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt", threadCounts);
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package experiment;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Scanner;
+import java.io.File;
+
+import ai.pathfinder.Pathfinder;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import libraries.PathLibrary;
+
+/**
+ * Measures PathLibrary.getPath(..., boolean[][] map) the way a controller
+ * uses it, asking for paths between a few hundred tile pairs of one map over
+ * and over: "jar" builds an ai.pathfinder graph and searches it on every call
+ * (what getPath used to do), "uncached" runs with a cache too small to keep
+ * anything and "cached" with the default cache.
+ */
+public class PathCacheBenchmark {
+	final int queryPairs = 300;
+	final long measureMillis = 1000;
+	long checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		boolean[][] map = testDungeon.getImpassableArray();
+		int[] pairs = new int[queryPairs*4];
+		Random random = new Random(1);
+		for(int i=0;i<pairs.length;i+=2){
+			do {
+				pairs[i] = random.nextInt(testDungeon.getMapSizeX());
+				pairs[i+1] = random.nextInt(testDungeon.getMapSizeY());
+			} while(!testDungeon.isPassable(pairs[i], pairs[i+1]));
+		}
+
+		double jarTime = measure(map, pairs, true);
+		PathLibrary.setCacheCapacity(0, 0);
+		measure(map, pairs, false);
+		double uncachedTime = measure(map, pairs, false);
+		PathLibrary.setCacheCapacity(64, 4096);
+		PathLibrary.clearCache();
+		measure(map, pairs, false);
+		double cachedTime = measure(map, pairs, false);
+		System.out.println(filename+";jar;"+(long)jarTime+";uncached;"+(long)uncachedTime+";cached;"+(long)cachedTime+
+				";hits;"+PathLibrary.getPathCacheHits()+";misses;"+PathLibrary.getPathCacheMisses());
+	}
+
+	/** @return average nanoseconds per query */
+	protected double measure(boolean[][] map, int[] pairs, boolean jar){
+		long queries = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			for(int i=0;i<pairs.length && now<end;i+=4){
+				ArrayList<?> path;
+				if(jar){
+					Pathfinder pf = PathLibrary.init(map);
+					path = pf.aStar(PathLibrary.findNode(pairs[i],pairs[i+1],pf), PathLibrary.findNode(pairs[i+2],pairs[i+3],pf));
+				} else {
+					path = PathLibrary.getPath(pairs[i], pairs[i+1], pairs[i+2], pairs[i+3], map);
+				}
+				checksum += path==null ? 0 : path.size();
+				queries++;
+				now = System.nanoTime();
+			}
+		}
+		return (now-start)/(double)queries;
+	}
+
+	public static void main(String[] args) {
+		PathCacheBenchmark exp = new PathCacheBenchmark();
+		System.out.println("map;jar;ns/query;uncached;ns/query;cached;ns/query;hits;n;misses;n");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package experiment;
+
+import java.util.Scanner;
+import java.util.Vector;
+import java.io.File;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.DungeonPaths;
+import libraries.TilePath;
+
+/**
+ * Measures a pass of monster-reward path lookups over every (monster, reward)
+ * pair of each map, as map feature code makes them: "scan" searches the whole
+ * path set for the pair's endpoints (how getRewardPathFromMonster used to work),
+ * "table" asks DungeonPaths, which looks the pair up by index.
+ */
+public class PathLookupBenchmark {
+	final long measureMillis = 1000;
+	long checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		testDungeon.finalizeSketch();
+		DungeonPaths paths = testDungeon.getPaths();
+		paths.getMonster_rewardTilePaths();
+
+		measure(testDungeon, false);
+		double scanTime = measure(testDungeon, false);
+		measure(testDungeon, true);
+		double tableTime = measure(testDungeon, true);
+		System.out.println(filename+";pairs;"+(testDungeon.getMonsterLength()*testDungeon.getRewardLength())+
+				";scan;"+(long)scanTime+";table;"+(long)tableTime+";speedup;"+(scanTime/tableTime));
+	}
+
+	/** @return average nanoseconds per pass over all pairs */
+	protected double measure(Dungeon dungeon, boolean table){
+		DungeonPaths paths = dungeon.getPaths();
+		long passes = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			for(int m=0;m<dungeon.getMonsterLength();m++){
+				for(int r=0;r<dungeon.getRewardLength();r++){
+					TilePath path = table ? paths.getRewardTilePathFromMonster(r, m) : scan(dungeon, r, m);
+					checksum += path==null ? 0 : path.size();
+				}
+			}
+			passes++;
+			now = System.nanoTime();
+		}
+		return (now-start)/(double)passes;
+	}
+
+	protected TilePath scan(Dungeon dungeon, int rewardIndex, int monsterIndex){
+		int monsterX = (int)(dungeon.getMonster(monsterIndex).x);
+		int monsterY = (int)(dungeon.getMonster(monsterIndex).y);
+		int rewardX = (int)(dungeon.getReward(rewardIndex).x);
+		int rewardY = (int)(dungeon.getReward(rewardIndex).y);
+		Vector<TilePath> monster_rewardPaths = dungeon.getPaths().getMonster_rewardTilePaths();
+		for(int i=0;i<monster_rewardPaths.size();i++){
+			TilePath path = monster_rewardPaths.get(i);
+			if(path.hasStart(monsterX,monsterY) && path.hasEnd(rewardX,rewardY)){ return path; }
+			if(path.hasStart(rewardX,rewardY) && path.hasEnd(monsterX,monsterY)){ return path; }
+		}
+		return null;
+	}
+
+	public static void main(String[] args) {
+		PathLookupBenchmark exp = new PathLookupBenchmark();
+		System.out.println("map;pairs;n;scan;ns/pass;table;ns/pass;speedup;x");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
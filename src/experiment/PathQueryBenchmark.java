@@ -0,0 +1,128 @@
+package experiment;
+
+import java.util.Random;
+import java.util.Scanner;
+import java.io.File;
+
+import ai.pathfinder.Node;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.DungeonPaths;
+
+/**
+ * Measures the latency of single path queries on each dungeon and on large
+ * synthetic maps: looking up a node by scanning the node list (what findNode
+ * used to do), looking it up in the node table, and full getPath and
+ * getDistance queries between random passable tiles.
+ */
+public class PathQueryBenchmark {
+	final int queryPairs = 1000;
+	final long measureMillis = 500;
+	final int syntheticSize = 256;
+	final double syntheticWallChance = 0.25;
+	long checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon dungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		dungeon.finalizeSketch();
+		runBenchmark(filename, dungeon);
+	}
+
+	public void runSynthetic(long seed){
+		Random random = new Random(seed);
+		Dungeon dungeon = new Dungeon(syntheticSize, syntheticSize);
+		for(int x=0;x<syntheticSize;x++){
+			for(int y=0;y<syntheticSize;y++){
+				if(random.nextDouble()<syntheticWallChance){ dungeon.setImpassable(x,y); }
+			}
+		}
+		dungeon.getPaths().init();
+		dungeon.getPaths().buildDistanceTables();
+		runBenchmark("synthetic"+syntheticSize+"x"+syntheticSize+"_"+seed, dungeon);
+	}
+
+	protected void runBenchmark(String name, Dungeon dungeon){
+		DungeonPaths paths = dungeon.getPaths();
+		int[] pairs = createPairs(dungeon, new Random(1));
+		double scanTime = measure(paths, pairs, 0);
+		double tableTime = measure(paths, pairs, 1);
+		double pathTime = measure(paths, pairs, 2);
+		double distanceTime = measure(paths, pairs, 3);
+		System.out.println(name+";scan;"+(long)scanTime+";table;"+(long)tableTime+";getPath;"+(long)pathTime+";getDistance;"+(long)distanceTime);
+	}
+
+	/** @return queryPairs pairs of passable tiles, as x1,y1,x2,y2 */
+	protected int[] createPairs(Dungeon dungeon, Random random){
+		int[] result = new int[queryPairs*4];
+		for(int i=0;i<result.length;i+=2){
+			do {
+				result[i] = random.nextInt(dungeon.getMapSizeX());
+				result[i+1] = random.nextInt(dungeon.getMapSizeY());
+			} while(!dungeon.isPassable(result[i], result[i+1]));
+		}
+		return result;
+	}
+
+	/** @return average nanoseconds per query, after a run of the same length to warm up */
+	protected double measure(DungeonPaths paths, int[] pairs, int query){
+		measureOnce(paths, pairs, query);
+		return measureOnce(paths, pairs, query);
+	}
+	protected double measureOnce(DungeonPaths paths, int[] pairs, int query){
+		long queries = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			for(int i=0;i<pairs.length;i+=4){
+				runQuery(paths, pairs, i, query);
+				queries++;
+				if((queries&15)==0 && System.nanoTime()>=end){ break; }
+			}
+			now = System.nanoTime();
+		}
+		return (now-start)/(double)queries;
+	}
+
+	protected void runQuery(DungeonPaths paths, int[] pairs, int i, int query){
+		switch(query){
+		case 0:
+			checksum += scanNode(paths, pairs[i], pairs[i+1]).hashCode();
+			break;
+		case 1:
+			checksum += paths.findNode(pairs[i], pairs[i+1]).hashCode();
+			break;
+		case 2:
+			checksum += paths.getPath(pairs[i], pairs[i+1], pairs[i+2], pairs[i+3])==null ? 0 : 1;
+			break;
+		default:
+			checksum += (long)paths.getDistance(pairs[i], pairs[i+1], pairs[i+2], pairs[i+3]);
+		}
+	}
+
+	protected Node scanNode(DungeonPaths paths, int x, int y){
+		for(Object temp : paths.getAStar().nodes){
+			Node n = (Node)temp;
+			if(n.x == x && n.y == y){ return n; }
+		}
+		return null;
+	}
+
+	public static void main(String[] args) {
+		PathQueryBenchmark exp = new PathQueryBenchmark();
+		System.out.println("map;scan;ns/query;table;ns/query;getPath;ns/query;getDistance;ns/query");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+		for(int i=0;i<3;i++){
+			exp.runSynthetic(i);
+		}
+	}
+}
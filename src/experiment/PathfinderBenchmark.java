@@ -0,0 +1,134 @@
+package experiment;
+
+import java.util.ArrayList;
+import java.util.Scanner;
+import java.io.File;
+
+import ai.pathfinder.Node;
+import ai.pathfinder.Pathfinder;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import libraries.GridGraph;
+import libraries.GridPathfinder;
+import libraries.PathLibrary;
+
+/**
+ * Compares the A* of ai_path.jar with GridPathfinder on each dungeon, over
+ * every pair of passable tiles. Both searches run on the same 4-connected
+ * graph; the run also counts pairs where the two return different paths,
+ * which should always be zero.
+ */
+public class PathfinderBenchmark {
+	final int warmupRounds = 3;
+	final long measureMillis = 1000;
+	long checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		int sizeX = testDungeon.getMapSizeX();
+		int sizeY = testDungeon.getMapSizeY();
+		boolean[][] passable = new boolean[sizeX][sizeY];
+		int count = 0;
+		for(int x=0;x<sizeX;x++){
+			for(int y=0;y<sizeY;y++){
+				passable[x][y] = testDungeon.isPassable(x,y);
+				if(passable[x][y]){ count++; }
+			}
+		}
+		int[] tiles = new int[count];
+		count = 0;
+		for(int tile=0;tile<sizeX*sizeY;tile++){
+			if(passable[tile/sizeY][tile%sizeY]){ tiles[count++] = tile; }
+		}
+		GridGraph graph = new GridGraph(passable, false);
+		Pathfinder astar = new Pathfinder();
+		astar.corners = false;
+		astar.setCuboidNodes(sizeX, sizeY, 1);
+		Node[] nodes = new Node[sizeX*sizeY];
+		for(Object temp : astar.nodes){
+			Node n = (Node)temp;
+			n.walkable = passable[(int)(n.x)][(int)(n.y)];
+			nodes[(int)(n.x)*sizeY+(int)(n.y)] = n;
+		}
+		astar.radialDisconnectUnwalkables();
+
+		int mismatches = 0;
+		for(int i=0;i<tiles.length;i++){
+			for(int j=0;j<tiles.length;j++){
+				if(!samePath(astar.aStar(nodes[tiles[i]], nodes[tiles[j]]), GridPathfinder.aStar(graph, tiles[i], tiles[j]), sizeY, tiles[i], tiles[j])){ mismatches++; }
+			}
+		}
+		double jarRate = measureJar(astar, nodes, tiles);
+		double gridRate = measureGrid(graph, tiles);
+		System.out.println(filename+";tiles;"+tiles.length+";jar;"+(long)jarRate+";grid;"+(long)gridRate+";speedup;"+(gridRate/jarRate)+";mismatches;"+mismatches);
+	}
+
+	/** The jar returns the path from goal to start, and a partial path if the goal is unreachable. */
+	protected boolean samePath(ArrayList<?> jarPath, int[] gridPath, int sizeY, int from, int to){
+		if(!PathLibrary.hasStart(jarPath, to/sizeY, to%sizeY) || !PathLibrary.hasEnd(jarPath, from/sizeY, from%sizeY)){
+			return gridPath==null;
+		}
+		if(gridPath==null || gridPath.length!=jarPath.size()){ return false; }
+		for(int i=0;i<gridPath.length;i++){
+			Node n = (Node)jarPath.get(gridPath.length-1-i);
+			if((int)(n.x)*sizeY+(int)(n.y)!=gridPath[i]){ return false; }
+		}
+		return true;
+	}
+
+	protected double measureJar(Pathfinder astar, Node[] nodes, int[] tiles){
+		long searches = 0;
+		long start = 0;
+		long now = 0;
+		for(int round=0;round<=warmupRounds;round++){
+			if(round==warmupRounds){ start = System.nanoTime(); }
+			long end = System.nanoTime() + measureMillis*1000000L;
+			for(int i=0;;i=(i+1)%tiles.length){
+				for(int j=0;j<tiles.length;j++){
+					checksum += astar.aStar(nodes[tiles[i]], nodes[tiles[j]]).size();
+				}
+				searches += tiles.length;
+				now = System.nanoTime();
+				if(now>=end){ break; }
+			}
+			if(round<warmupRounds){ searches = 0; }
+		}
+		return searches/((now-start)/1e9);
+	}
+
+	protected double measureGrid(GridGraph graph, int[] tiles){
+		long searches = 0;
+		long start = 0;
+		long now = 0;
+		for(int round=0;round<=warmupRounds;round++){
+			if(round==warmupRounds){ start = System.nanoTime(); }
+			long end = System.nanoTime() + measureMillis*1000000L;
+			for(int i=0;;i=(i+1)%tiles.length){
+				for(int j=0;j<tiles.length;j++){
+					int[] path = GridPathfinder.aStar(graph, tiles[i], tiles[j]);
+					checksum += path==null ? 0 : path.length;
+				}
+				searches += tiles.length;
+				now = System.nanoTime();
+				if(now>=end){ break; }
+			}
+			if(round<warmupRounds){ searches = 0; }
+		}
+		return searches/((now-start)/1e9);
+	}
+
+	public static void main(String[] args) {
+		PathfinderBenchmark exp = new PathfinderBenchmark();
+		System.out.println("map;tiles;n;jar;searches/s;grid;searches/s;speedup;x;mismatches;n");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package experiment;
+
+import java.util.Scanner;
+import java.io.File;
+
+import controllers.PlannerController;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.PlayMap;
+
+/**
+ * Plays each dungeon with a PlannerController and reports the search rate
+ * (states expanded per second), the memory per stored state, how many plans
+ * were made and how long the first took, and how the game ended.
+ */
+public class PlannerBenchmark {
+	final int maxActions = 300;
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+		PlannerController agent = new PlannerController(testPlay, testPlay.getHero());
+
+		int actions = 0;
+		double firstPlanMillis = 0;
+		long storedStates = 0;
+		double bytesPerState = 0;
+		while(!testPlay.isGameHalted() && actions<maxActions){
+			testPlay.updateGame(agent.getNextAction());
+			if(actions==0){
+				firstPlanMillis = agent.getLastPlanMillis();
+				storedStates = agent.getStoredStates();
+				bytesPerState = agent.getBytesPerState();
+			}
+			actions++;
+		}
+		String outcome = testPlay.getHero().getHitpoints()<=0 ? "died" : testPlay.isGameHalted() ? "exit" : "unfinished";
+		System.out.println(filename+";expansionsPerSec;"+(long)agent.getExpansionsPerSecond()+";states;"+storedStates+
+				";bytesPerState;"+(long)bytesPerState+";firstPlanMs;"+firstPlanMillis+";plans;"+agent.getPlans()+
+				";actions;"+actions+";outcome;"+outcome+";hp;"+testPlay.getHero().getHitpoints()+
+				";treasures;"+testPlay.getRewardsCollected()+";potions;"+testPlay.getPotionsDrunk()+";monsters;"+testPlay.getMonstersKilled());
+	}
+
+	public static void main(String[] args) {
+		PlannerBenchmark exp = new PlannerBenchmark();
+		System.out.println("map;expansionsPerSec;n/s;states;n;bytesPerState;B;firstPlanMs;ms;plans;n;actions;n;outcome;-;hp;n;treasures;n;potions;n;monsters;n");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package experiment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.io.File;
+
+import controllers.QLearningController;
+import controllers.QTable;
+
+import dungeon.DungeonLoader;
+import dungeon.play.PlayMap;
+
+/**
+ * Trains a QTable with one-step Q-learning on every dungeon in a folder and
+ * then plays each dungeon with the greedy QLearningController.
+ * <p>
+ * Training runs in batches of syncEpisodes episodes per thread. In a batch
+ * every thread plays its episodes on its own PlayMaps (one per dungeon,
+ * loaded by the thread) and chooses moves epsilon-greedily by the shared
+ * table plus its own shard. A shard only holds what the thread's updates have
+ * added to the shared values, and how many updates each value had, so the
+ * shared table is only read during a batch; between batches the shards are
+ * added to it (see QTable.addUpdates()) and emptied. Short batches keep the
+ * threads learning from each other almost as soon as one thread would from
+ * itself.
+ * <p>
+ * Rewards: the score gained (one per treasure), exitReward for reaching the
+ * exit, minus deathPenalty for dying and stepCost for every move.
+ */
+public class QLearningTrainer {
+	float alpha = 0.2f;
+	float gamma = 0.95f;
+	double startEpsilon = 0.3;
+	double endEpsilon = 0.05;
+	int maxSteps = 200;
+	float exitReward = 10;
+	float deathPenalty = 10;
+	float stepCost = 0.05f;
+	int syncEpisodes = 20;
+
+	int threads;
+	String[] asciiMaps;
+	QTable table = new QTable(1<<16);
+	ExecutorService executor;
+	Worker[] workers;
+
+	public QLearningTrainer(String folder, int threads){
+		this.threads = Math.max(1, threads);
+		File[] files = new File(folder).listFiles((dir, name) -> name.endsWith(".txt"));
+		Arrays.sort(files);
+		asciiMaps = new String[files.length];
+		for(int i=0;i<files.length;i++){
+			try {
+				asciiMaps[i] = new Scanner(files[i]).useDelimiter("\\A").next();
+			} catch(Exception e){
+				System.out.println(e.toString());
+			}
+		}
+		workers = new Worker[this.threads];
+		for(int i=0;i<this.threads;i++){ workers[i] = new Worker(0x9E3779B97F4A7C15L*(i+1)); }
+		if(this.threads>1){
+			executor = Executors.newFixedThreadPool(this.threads-1, r -> {
+				Thread thread = new Thread(r, "QLearningTrainer");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	public QTable getTable(){ return table; }
+	public int getMapCount(){ return asciiMaps.length; }
+
+	public void setSyncEpisodes(int value){ syncEpisodes = Math.max(1, value); }
+
+	/**
+	 * Plays a number of episodes in batches, dealt to the threads round-robin,
+	 * adding the shards to the table after each batch.
+	 * @return the number of episodes that ended at an exit
+	 */
+	public int trainRound(int episodes, int firstEpisode, double epsilon){
+		int exits = 0;
+		QTable[] changes = new QTable[threads];
+		QTable[] counts = new QTable[threads];
+		for(int from=0;from<episodes;from+=threads*syncEpisodes){
+			int to = Math.min(episodes, from+threads*syncEpisodes);
+			for(int i=0;i<threads;i++){ workers[i].setBatch(from+i, to, firstEpisode, epsilon); }
+			List<Future<Integer>> running = new ArrayList<Future<Integer>>();
+			for(int i=1;i<threads;i++){ running.add(executor.submit(workers[i])); }
+			exits += workers[0].call();
+			for(int i=0;i<running.size();i++){
+				try {
+					exits += running.get(i).get();
+				} catch(Exception e){
+					throw new RuntimeException(e);
+				}
+			}
+			for(int i=0;i<threads;i++){
+				changes[i] = workers[i].shard;
+				counts[i] = workers[i].shardCounts;
+			}
+			table.addUpdates(changes, counts, alpha);
+			for(int i=0;i<threads;i++){
+				workers[i].shard.clear();
+				workers[i].shardCounts.clear();
+			}
+		}
+		return exits;
+	}
+
+	public void shutdown(){
+		if(executor!=null){ executor.shutdownNow(); }
+		executor = null;
+	}
+
+	/** One thread's episodes; plays on its own maps and writes only to its own shard. */
+	class Worker implements Callable<Integer> {
+		final QTable shard = new QTable(1<<12);
+		final QTable shardCounts = new QTable(1<<12);	// updates per value
+		final float[] values = new float[4];
+		final float[] nextValues = new float[4];
+		PlayMap[] maps;
+		long random;
+		int first;			// episodes first, first+threads, ... up to end (exclusive)
+		int end;
+		int firstEpisode;
+		double epsilon;
+		long steps;
+
+		Worker(long random){
+			this.random = random | 1;
+		}
+
+		void setBatch(int first, int end, int firstEpisode, double epsilon){
+			this.first = first;
+			this.end = end;
+			this.firstEpisode = firstEpisode;
+			this.epsilon = epsilon;
+		}
+
+		public Integer call(){
+			if(maps==null){
+				maps = new PlayMap[asciiMaps.length];
+				for(int i=0;i<maps.length;i++){ maps[i] = new PlayMap(DungeonLoader.loadAsciiDungeon(asciiMaps[i])); }
+			}
+			int exits = 0;
+			for(int e=first;e<end;e+=threads){
+				if(playEpisode(maps[(firstEpisode+e)%maps.length])){ exits++; }
+			}
+			return exits;
+		}
+
+		/** @return whether the hero reached the exit */
+		boolean playEpisode(PlayMap map){
+			map.startGame();
+			long key = QLearningController.encodeState(map);
+			readValues(key, values);
+			for(int step=0;step<maxSteps && !map.isGameHalted();step++){
+				int moves = map.getLegalMoves(map.getHero().getX(), map.getHero().getY());
+				if(moves==0){ break; }
+				int action = chooseAction(moves, values);
+				int score = map.getHero().getScore();
+				map.applyMove(action);
+				float reward = map.getHero().getScore()-score-stepCost;
+				float target = reward;
+				long nextKey = 0;
+				if(map.isGameHalted()){
+					target += map.getHero().isAlive() ? exitReward : -deathPenalty;
+				} else {
+					nextKey = QLearningController.encodeState(map);
+					readValues(nextKey, nextValues);
+					int nextMoves = map.getLegalMoves(map.getHero().getX(), map.getHero().getY());
+					if(nextMoves!=0){ target += gamma*nextValues[bestOf(nextMoves, nextValues)]; }
+				}
+				float change = alpha*(target-values[action]);
+				shard.addValue(shard.add(key), action, change);
+				shardCounts.addValue(shardCounts.add(key), action, 1);
+				if(nextKey==key){ nextValues[action] += change; }
+				key = nextKey;
+				System.arraycopy(nextValues, 0, values, 0, 4);
+				steps++;
+			}
+			return map.isGameHalted() && map.getHero().isAlive();
+		}
+
+		void readValues(long key, float[] result){
+			int sharedSlot = table.find(key);
+			int shardSlot = shard.find(key);
+			for(int action=0;action<4;action++){ result[action] = table.getValue(sharedSlot, action)+shard.getValue(shardSlot, action); }
+		}
+
+		int chooseAction(int moves, float[] values){
+			random ^= random<<13;
+			random ^= random>>>7;
+			random ^= random<<17;
+			if((random>>>11)*0x1.0p-53<epsilon){
+				int pick = (int)((random & 0x7FFFFFFF)%Integer.bitCount(moves));
+				for(int action=0;action<4;action++){
+					if((moves & (1<<action))!=0 && pick--==0){ return action; }
+				}
+			}
+			return bestOf(moves, values);
+		}
+
+		int bestOf(int moves, float[] values){
+			int result = -1;
+			for(int action=0;action<4;action++){
+				if((moves & (1<<action))!=0 && (result<0 || values[action]>values[result])){ result = action; }
+			}
+			return result;
+		}
+	}
+
+	/** @return moves played by all threads so far */
+	public long getSteps(){
+		long result = 0;
+		for(int i=0;i<threads;i++){ result += workers[i].steps; }
+		return result;
+	}
+
+	/** Plays every dungeon once with the greedy policy and prints how each game ended. */
+	public void evaluate(int maxActions){
+		for(int i=0;i<asciiMaps.length;i++){
+			PlayMap testPlay = new PlayMap(DungeonLoader.loadAsciiDungeon(asciiMaps[i]));
+			testPlay.startGame();
+			QLearningController agent = new QLearningController(testPlay, testPlay.getHero(), table);
+			int actions = 0;
+			while(!testPlay.isGameHalted() && actions<maxActions){
+				testPlay.updateGame(agent.getNextAction());
+				actions++;
+			}
+			String outcome = testPlay.getHero().getHitpoints()<=0 ? "died" : testPlay.isGameHalted() ? "exit" : "unfinished";
+			System.out.println("map"+i+";actions;"+actions+";outcome;"+outcome+";hp;"+testPlay.getHero().getHitpoints()+
+					";treasures;"+testPlay.getRewardsCollected()+";misses;"+agent.getMissRate());
+		}
+	}
+
+	/** @param args number of threads (default: available processors), rounds, episodes per round */
+	public static void main(String[] args) {
+		int threads = args.length>0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int rounds = args.length>1 ? Integer.parseInt(args[1]) : 20;
+		int episodes = args.length>2 ? Integer.parseInt(args[2]) : 2000;
+		QLearningTrainer trainer = new QLearningTrainer("./dungeons", threads);
+		System.out.println("round;n;episodesPerSec;n/s;stepsPerSec;n/s;exitRate;-;states;n;tableBytes;B");
+		for(int round=0;round<rounds;round++){
+			double epsilon = trainer.startEpsilon + (trainer.endEpsilon-trainer.startEpsilon)*round/Math.max(1, rounds-1);
+			long steps = trainer.getSteps();
+			long start = System.nanoTime();
+			int exits = trainer.trainRound(episodes, round*episodes, epsilon);
+			double seconds = (System.nanoTime()-start)/1e9;
+			System.out.println(round+";episodesPerSec;"+(long)(episodes/seconds)+";stepsPerSec;"+(long)((trainer.getSteps()-steps)/seconds)+
+					";exitRate;"+(exits/(double)episodes)+";states;"+trainer.getTable().size()+";tableBytes;"+trainer.getTable().getBytes());
+		}
+		trainer.shutdown();
+		trainer.evaluate(300);
+	}
+}
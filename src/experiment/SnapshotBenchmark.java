@@ -0,0 +1,111 @@
+package experiment;
+
+import java.util.Arrays;
+import java.util.Scanner;
+import java.io.File;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.play.PlayMap;
+import util.statics.RandomNumberManager;
+
+/**
+ * Round-trips random game states through PlayMap.toSnapshot() and 
+ * restoreSnapshot() and checks them against clone(), both right after the 
+ * restore and after playing the same actions on both maps. Then measures the 
+ * time per encode and per decode on each dungeon.
+ */
+public class SnapshotBenchmark {
+	final int playouts = 50;
+	final int warmupIterations = 200000;
+	final long measureMillis = 500;
+	byte[] lastSnapshot;	// keeps the results reachable so the JIT cannot drop them
+	
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		PlayMap testPlay = new PlayMap(testDungeon);
+		testPlay.startGame();
+		PlayMap target = new PlayMap(testDungeon);
+		target.startGame();
+		
+		int checked = checkRoundTrips(testPlay, target);
+		for(int i=0;i<20;i++){ testPlay.updateGame(RandomNumberManager.getRandomInt(0, 4)); }
+		byte[] snapshot = testPlay.toSnapshot();
+		double encodeNanos = measureEncode(testPlay);
+		double decodeNanos = measureDecode(target, snapshot);
+		System.out.println(filename+";"+checked+";"+snapshot.length+";"+(long)encodeNanos+";"+(long)decodeNanos);
+	}
+	
+	protected int checkRoundTrips(PlayMap map, PlayMap target){
+		int checked = 0;
+		for(int p=0;p<playouts;p++){
+			map.startGame();
+			while(!map.isGameHalted()){
+				PlayMap clone = map.clone();
+				target.restoreSnapshot(map.toSnapshot());
+				assertSame(clone, target);
+				int action = RandomNumberManager.getRandomInt(0, 4);
+				clone.updateGame(action);
+				target.updateGame(action);
+				assertSame(clone, target);
+				map.updateGame(RandomNumberManager.getRandomInt(0, 4));
+				checked++;
+			}
+		}
+		return checked;
+	}
+	
+	protected void assertSame(PlayMap expected, PlayMap actual){
+		if(!Arrays.equals(expected.toSnapshot(), actual.toSnapshot()) 
+				|| expected.getHash()!=actual.getHash()
+				|| actual.getHash()!=actual.computeHash()
+				|| !expected.toASCII().equals(actual.toASCII())
+				|| !Arrays.deepEquals(expected.getViewPort(), actual.getViewPort())
+				|| !Arrays.deepEquals(expected.getCurrentView(), actual.getCurrentView())
+				|| expected.getHero().getScore()!=actual.getHero().getScore()){
+			throw new IllegalStateException("Restored snapshot differs from clone:\n"+expected.toASCII()+"\n"+actual.toASCII());
+		}
+	}
+	
+	protected double measureEncode(PlayMap map){
+		for(int i=0;i<warmupIterations;i++){ lastSnapshot = map.toSnapshot(); }
+		long count = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			lastSnapshot = map.toSnapshot();
+			count++;
+			now = System.nanoTime();
+		}
+		return (now-start)/(double)count;
+	}
+	
+	protected double measureDecode(PlayMap map, byte[] snapshot){
+		for(int i=0;i<warmupIterations;i++){ map.restoreSnapshot(snapshot); }
+		long count = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			map.restoreSnapshot(snapshot);
+			count++;
+			now = System.nanoTime();
+		}
+		return (now-start)/(double)count;
+	}
+	
+	public static void main(String[] args) {
+		SnapshotBenchmark exp = new SnapshotBenchmark();
+		System.out.println("map;states checked;snapshot bytes;encode ns;decode ns");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package experiment;
+
+import java.util.ArrayList;
+import java.util.Scanner;
+import java.util.Vector;
+import java.io.File;
+
+import ai.pathfinder.Node;
+
+import dungeon.Dungeon;
+import dungeon.DungeonLoader;
+import dungeon.DungeonPaths;
+import libraries.PathLibrary;
+import libraries.TilePath;
+
+/**
+ * Compares the monster-reward path set of each map as Node lists and as
+ * TilePaths: the time to test every pair of paths for a shared tile (with
+ * PathLibrary.hasNode() on the lists, with overlaps() on the tile paths), the
+ * time to measure every path's length, and the rough heap size of each form.
+ */
+public class TilePathBenchmark {
+	final long measureMillis = 1000;
+	// rough object sizes with compressed references: a Node holds a few fields
+	// and an ArrayList of links; a TilePath an int[] and a small long[]
+	final int nodeBytes = 72;
+	final int listBytes = 40;
+	long checksum;	// keeps the results reachable so the JIT cannot drop them
+
+	public void runBenchmark(String filename){
+		String asciiMap = "";
+		try {
+			asciiMap = new Scanner(new File(filename)).useDelimiter("\\A").next();
+		} catch(Exception e){
+			System.out.println(e.toString());
+		}
+		Dungeon testDungeon = DungeonLoader.loadAsciiDungeon(asciiMap);
+		testDungeon.finalizeSketch();
+		DungeonPaths paths = testDungeon.getPaths();
+		ArrayList<?>[] nodePaths = paths.getMonster_rewardPaths().toArray(new ArrayList<?>[0]);
+		Vector<TilePath> tilePaths = paths.getMonster_rewardTilePaths();
+		if(tilePaths.size()==0){ return; }
+
+		long nodeMemory = 0;
+		long tileMemory = 0;
+		for(int i=0;i<tilePaths.size();i++){
+			nodeMemory += listBytes + 4L*nodePaths[i].size() + nodeBytes*(long)nodePaths[i].size();
+			tileMemory += 40 + 16+4L*tilePaths.get(i).size() + 16+8L*((tilePaths.get(i).size()+63)/64+1);
+		}
+
+		measure(nodePaths, tilePaths, 0);
+		double nodeOverlap = measure(nodePaths, tilePaths, 0);
+		measure(nodePaths, tilePaths, 1);
+		double tileOverlap = measure(nodePaths, tilePaths, 1);
+		measure(nodePaths, tilePaths, 2);
+		double nodeLength = measure(nodePaths, tilePaths, 2);
+		measure(nodePaths, tilePaths, 3);
+		double tileLength = measure(nodePaths, tilePaths, 3);
+		System.out.println(filename+";paths;"+tilePaths.size()+";nodeBytes;"+nodeMemory+";tileBytes;"+tileMemory+
+				";nodeOverlap;"+(long)nodeOverlap+";tileOverlap;"+(long)tileOverlap+
+				";nodeLength;"+(long)nodeLength+";tileLength;"+(long)tileLength);
+	}
+
+	/** @return average nanoseconds for one pass over the path set */
+	protected double measure(ArrayList<?>[] nodes, Vector<TilePath> tilePaths, int query){
+		TilePath[] tiles = tilePaths.toArray(new TilePath[0]);
+		long passes = 0;
+		long start = System.nanoTime();
+		long end = start + measureMillis*1000000L;
+		long now = start;
+		while(now<end){
+			for(int i=0;i<tiles.length;i++){
+				if(query==0){
+					for(int j=0;j<nodes.length;j++){ checksum += overlaps(nodes[i], nodes[j]) ? 1 : 0; }
+				} else if(query==1){
+					for(int j=0;j<tiles.length;j++){ checksum += tiles[i].overlaps(tiles[j]) ? 1 : 0; }
+				} else if(query==2){
+					checksum += (long)PathLibrary.calculateDistance(nodes[i]);
+				} else {
+					checksum += (long)tiles[i].getLength();
+				}
+			}
+			passes++;
+			now = System.nanoTime();
+		}
+		return (now-start)/(double)passes;
+	}
+
+	protected boolean overlaps(ArrayList<?> path1, ArrayList<?> path2){
+		for(int i=0;i<path1.size();i++){
+			Node n = (Node)path1.get(i);
+			if(PathLibrary.hasNode(path2, (int)(n.x), (int)(n.y))){ return true; }
+		}
+		return false;
+	}
+
+	public static void main(String[] args) {
+		TilePathBenchmark exp = new TilePathBenchmark();
+		System.out.println("map;paths;n;nodeBytes;b;tileBytes;b;nodeOverlap;ns/pass;tileOverlap;ns/pass;nodeLength;ns/pass;tileLength;ns/pass");
+		for(int i=0;i<=10;i++){
+			exp.runBenchmark("./dungeons/map"+i+".txt");
+		}
+	}
+}
@@ -0,0 +1,97 @@
+package libraries;
+
+/**
+ * An immutable graph over the walkable tiles of a grid, stored as flat int
+ * arrays. Tiles are numbered x*sizeY+y, as in Dungeon.getTileIndex().
+ * The links of each tile are listed in the same order as the ai.pathfinder
+ * nodes list theirs, and diagonal links are dropped where they would cut the
+ * corner of an unwalkable tile (as radialDisconnectUnwalkables() does), so
+ * searches over this graph break ties the same way the old Pathfinder did.
+ */
+public class GridGraph {
+	public final static float STRAIGHT_COST = 1.f;
+	public final static float DIAGONAL_COST = (float)Math.sqrt(2.0);
+
+	// link order of ai.pathfinder: row above, own row, row below, left to right
+	final static int[] STRAIGHT_X = { 0, -1, 1, 0 };
+	final static int[] STRAIGHT_Y = { -1, 0, 0, 1 };
+	final static int[] CORNER_X = { -1, 0, 1, -1, 1, -1, 0, 1 };
+	final static int[] CORNER_Y = { -1, -1, -1, 0, 0, 1, 1, 1 };
+
+	final int sizeX;
+	final int sizeY;
+	final boolean corners;
+	final boolean[] walkable;
+	final int[] linkStart;	// links of tile t are linkTarget[linkStart[t]..linkStart[t+1]-1]
+	final int[] linkTarget;
+	final float[] linkCost;
+
+	/**
+	 * @param walkable walkable[x][y] is true for tiles that can be entered
+	 * @param corners whether diagonal moves are allowed
+	 */
+	public GridGraph(boolean[][] walkable, boolean corners){
+		this.sizeX = walkable.length;
+		this.sizeY = walkable[0].length;
+		this.corners = corners;
+		this.walkable = new boolean[sizeX*sizeY];
+		for(int x=0;x<sizeX;x++){
+			for(int y=0;y<sizeY;y++){ this.walkable[x*sizeY+y] = walkable[x][y]; }
+		}
+		int[] stepX = corners ? CORNER_X : STRAIGHT_X;
+		int[] stepY = corners ? CORNER_Y : STRAIGHT_Y;
+		int[] targets = new int[sizeX*sizeY*stepX.length];
+		float[] costs = new float[targets.length];
+		linkStart = new int[sizeX*sizeY+1];
+		int count = 0;
+		for(int tile=0;tile<this.walkable.length;tile++){
+			linkStart[tile] = count;
+			if(!this.walkable[tile]){ continue; }
+			int x = tile/sizeY;
+			int y = tile%sizeY;
+			for(int i=0;i<stepX.length;i++){
+				int nx = x+stepX[i];
+				int ny = y+stepY[i];
+				if(!isWalkable(nx,ny)){ continue; }
+				boolean diagonal = stepX[i]!=0 && stepY[i]!=0;
+				if(diagonal && (!isWalkable(nx,y) || !isWalkable(x,ny))){ continue; }
+				targets[count] = nx*sizeY+ny;
+				costs[count] = diagonal ? DIAGONAL_COST : STRAIGHT_COST;
+				count++;
+			}
+		}
+		linkStart[this.walkable.length] = count;
+		linkTarget = new int[count];
+		linkCost = new float[count];
+		System.arraycopy(targets, 0, linkTarget, 0, count);
+		System.arraycopy(costs, 0, linkCost, 0, count);
+	}
+
+	public int getSizeX(){ return sizeX; }
+	public int getSizeY(){ return sizeY; }
+	public int getTileCount(){ return walkable.length; }
+	public boolean hasCorners(){ return corners; }
+
+	public int getTile(int x, int y){ return x*sizeY+y; }
+	public int getTileX(int tile){ return tile/sizeY; }
+	public int getTileY(int tile){ return tile%sizeY; }
+
+	public boolean isWithinBounds(int x, int y){
+		return x>=0 && y>=0 && x<sizeX && y<sizeY;
+	}
+	public boolean isWalkable(int x, int y){
+		return isWithinBounds(x,y) && walkable[x*sizeY+y];
+	}
+	public boolean isWalkable(int tile){ return walkable[tile]; }
+
+	public int getLinkCount(int tile){ return linkStart[tile+1]-linkStart[tile]; }
+	public int getLink(int tile, int i){ return linkTarget[linkStart[tile]+i]; }
+	public float getLinkCost(int tile, int i){ return linkCost[linkStart[tile]+i]; }
+
+	/** @return straight-line distance between two tiles, computed as ai.pathfinder.Node.dist() does */
+	public float getEuclidean(int tile1, int tile2){
+		float dx = (float)(tile1/sizeY - tile2/sizeY);
+		float dy = (float)(tile1%sizeY - tile2%sizeY);
+		return (float)Math.sqrt(dx*dx+dy*dy);
+	}
+}
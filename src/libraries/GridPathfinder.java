@@ -0,0 +1,215 @@
+package libraries;
+
+/**
+ * A*, breadth-first and Dijkstra searches over a GridGraph. The open list is
+ * a binary heap ordered by cost and then by insertion order, which picks the
+ * same node as the linear scan of ai.pathfinder.Pathfinder, so aStar() returns
+ * the same paths the old library did. Working arrays are kept per thread and
+ * reset by stamping, so a search allocates nothing but its result and
+ * searches on different threads can share a graph.
+ * Paths are returned as tiles (x*sizeY+y) from start to goal, both included,
+ * or null if the goal cannot be reached from the start.
+ */
+public class GridPathfinder {
+	final static ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>(){
+		protected Scratch initialValue(){ return new Scratch(); }
+	};
+
+	public static int[] aStar(GridGraph graph, int start, int goal){
+		if(!canSearch(graph,start,goal)){ return null; }
+		Scratch s = scratch.get().prepare(graph.getTileCount());
+		s.open(start, 0.f, 0.f, -1);
+		while(s.heapSize>0){
+			int current = s.pop();
+			if(current==goal){ return s.tracePath(goal); }
+			float g = s.g[current];
+			for(int i=graph.linkStart[current];i<graph.linkStart[current+1];i++){
+				int next = graph.linkTarget[i];
+				float nextG = g+graph.linkCost[i];
+				if(s.stamp[next]!=s.generation){
+					s.open(next, nextG, nextG+graph.getEuclidean(next,goal), current);
+				} else if(s.heapPosition[next]>=0 && s.g[next]>nextG){
+					s.decrease(next, nextG, nextG+graph.getEuclidean(next,goal), current);
+				}
+			}
+		}
+		return null;
+	}
+
+	/** Ignores link costs: returns a path with the fewest moves. */
+	public static int[] breadthFirst(GridGraph graph, int start, int goal){
+		if(!canSearch(graph,start,goal)){ return null; }
+		Scratch s = scratch.get().prepare(graph.getTileCount());
+		int[] queue = s.queue;
+		int head = 0;
+		int tail = 0;
+		s.visit(start, -1);
+		queue[tail++] = start;
+		while(head<tail){
+			int current = queue[head++];
+			if(current==goal){ return s.tracePath(goal); }
+			for(int i=graph.linkStart[current];i<graph.linkStart[current+1];i++){
+				int next = graph.linkTarget[i];
+				if(s.stamp[next]==s.generation){ continue; }
+				s.visit(next, current);
+				queue[tail++] = next;
+			}
+		}
+		return null;
+	}
+
+	public static int[] dijkstra(GridGraph graph, int start, int goal){
+		if(!canSearch(graph,start,goal)){ return null; }
+		Scratch s = scratch.get().prepare(graph.getTileCount());
+		s.open(start, 0.f, 0.f, -1);
+		while(s.heapSize>0){
+			int current = s.pop();
+			if(current==goal){ return s.tracePath(goal); }
+			relax(graph, s, current);
+		}
+		return null;
+	}
+
+	/**
+	 * Fills distances[tile] with the cost of the cheapest path from the source
+	 * to every tile, or Float.POSITIVE_INFINITY where there is none.
+	 */
+	public static void dijkstra(GridGraph graph, int source, float[] distances){
+		java.util.Arrays.fill(distances, Float.POSITIVE_INFINITY);
+		if(source<0 || source>=graph.getTileCount() || !graph.isWalkable(source)){ return; }
+		Scratch s = scratch.get().prepare(graph.getTileCount());
+		s.open(source, 0.f, 0.f, -1);
+		while(s.heapSize>0){
+			int current = s.pop();
+			distances[current] = s.g[current];
+			relax(graph, s, current);
+		}
+	}
+
+	static void relax(GridGraph graph, Scratch s, int current){
+		float g = s.g[current];
+		for(int i=graph.linkStart[current];i<graph.linkStart[current+1];i++){
+			int next = graph.linkTarget[i];
+			float nextG = g+graph.linkCost[i];
+			if(s.stamp[next]!=s.generation){
+				s.open(next, nextG, nextG, current);
+			} else if(s.heapPosition[next]>=0 && s.g[next]>nextG){
+				s.decrease(next, nextG, nextG, current);
+			}
+		}
+	}
+
+	static boolean canSearch(GridGraph graph, int start, int goal){
+		int tiles = graph.getTileCount();
+		return start>=0 && goal>=0 && start<tiles && goal<tiles && graph.isWalkable(start) && graph.isWalkable(goal);
+	}
+
+	/** Per-thread working arrays, indexed by tile. A tile belongs to the current search only if its stamp matches. */
+	static class Scratch {
+		int generation;
+		int[] stamp = new int[0];
+		int[] parent;
+		float[] g;
+		float[] f;
+		int[] order;			// insertion number, breaks ties between equal f
+		int[] heapPosition;		// index in heap, or -1 once closed
+		int[] heap;
+		int[] queue;
+		int heapSize;
+		int inserted;
+
+		Scratch prepare(int tiles){
+			if(stamp.length<tiles){
+				stamp = new int[tiles];
+				parent = new int[tiles];
+				g = new float[tiles];
+				f = new float[tiles];
+				order = new int[tiles];
+				heapPosition = new int[tiles];
+				heap = new int[tiles];
+				queue = new int[tiles];
+				generation = 0;
+			}
+			if(++generation==0){
+				java.util.Arrays.fill(stamp, 0);
+				generation = 1;
+			}
+			heapSize = 0;
+			inserted = 0;
+			return this;
+		}
+
+		void visit(int tile, int from){
+			stamp[tile] = generation;
+			parent[tile] = from;
+		}
+
+		void open(int tile, float tileG, float tileF, int from){
+			visit(tile, from);
+			g[tile] = tileG;
+			f[tile] = tileF;
+			order[tile] = inserted++;
+			heap[heapSize] = tile;
+			heapPosition[tile] = heapSize;
+			siftUp(heapSize++);
+		}
+
+		void decrease(int tile, float tileG, float tileF, int from){
+			parent[tile] = from;
+			g[tile] = tileG;
+			f[tile] = tileF;
+			siftUp(heapPosition[tile]);
+		}
+
+		int pop(){
+			int result = heap[0];
+			heapPosition[result] = -1;
+			if(--heapSize>0){
+				heap[0] = heap[heapSize];
+				heapPosition[heap[0]] = 0;
+				siftDown(0);
+			}
+			return result;
+		}
+
+		boolean before(int a, int b){
+			return f[a]<f[b] || (f[a]==f[b] && order[a]<order[b]);
+		}
+
+		void siftUp(int i){
+			int tile = heap[i];
+			while(i>0){
+				int up = (i-1)>>>1;
+				if(!before(tile, heap[up])){ break; }
+				heap[i] = heap[up];
+				heapPosition[heap[i]] = i;
+				i = up;
+			}
+			heap[i] = tile;
+			heapPosition[tile] = i;
+		}
+
+		void siftDown(int i){
+			int tile = heap[i];
+			while(true){
+				int child = 2*i+1;
+				if(child>=heapSize){ break; }
+				if(child+1<heapSize && before(heap[child+1], heap[child])){ child++; }
+				if(!before(heap[child], tile)){ break; }
+				heap[i] = heap[child];
+				heapPosition[heap[i]] = i;
+				i = child;
+			}
+			heap[i] = tile;
+			heapPosition[tile] = i;
+		}
+
+		int[] tracePath(int goal){
+			int length = 0;
+			for(int tile=goal;tile>=0;tile=parent[tile]){ length++; }
+			int[] result = new int[length];
+			for(int tile=goal;tile>=0;tile=parent[tile]){ result[--length] = tile; }
+			return result;
+		}
+	}
+}
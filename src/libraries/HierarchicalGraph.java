@@ -0,0 +1,403 @@
+package libraries;
+
+import java.util.Arrays;
+
+/**
+ * A two-level view of a 4-connected GridGraph for large maps (HPA*). The map
+ * is cut into square clusters; where two clusters touch through a run of
+ * walkable tiles, one or two pairs of border tiles become abstract nodes, and
+ * the abstract graph links them across the border (one step) and to the other
+ * abstract nodes of their cluster (the shortest walk that stays inside it).
+ * Building it costs a breadth-first search per abstract node over a single
+ * cluster, and its size grows with the map area.
+ * A query searches the clusters of the two endpoints directly and the
+ * abstract graph in between, so its cost depends on the number of clusters
+ * crossed rather than the number of tiles. Distances are near-optimal: paths
+ * are only allowed to cross cluster borders at the chosen tiles.
+ */
+public class HierarchicalGraph {
+	public final static int DEFAULT_CLUSTER_SIZE = 16;
+	final static int LONG_ENTRANCE = 6;	// runs at least this long get a transition at each end
+
+	final GridGraph graph;
+	final int clusterSize;
+	final int clustersX;
+	final int clustersY;
+
+	int nodeCount;
+	int[] nodeTile;			// abstract node -> grid tile
+	final int[] nodeAt;		// grid tile -> abstract node, or -1
+	int[] clusterStart;		// nodes of cluster c are clusterNodes[clusterStart[c]..clusterStart[c+1]-1]
+	int[] clusterNodes;
+	int[] edgeStart;		// edges of node n are edgeTarget/edgeCost[edgeStart[n]..edgeStart[n+1]-1]
+	int[] edgeTarget;
+	int[] edgeCost;
+
+	public HierarchicalGraph(GridGraph graph){
+		this(graph, DEFAULT_CLUSTER_SIZE);
+	}
+
+	public HierarchicalGraph(GridGraph graph, int clusterSize){
+		this.graph = graph;
+		this.clusterSize = clusterSize;
+		this.clustersX = (graph.getSizeX()+clusterSize-1)/clusterSize;
+		this.clustersY = (graph.getSizeY()+clusterSize-1)/clusterSize;
+		this.nodeAt = new int[graph.getTileCount()];
+		Arrays.fill(nodeAt, -1);
+		nodeTile = new int[64];
+		EdgeList edges = new EdgeList();
+		findTransitions(edges);
+		groupByCluster();
+		linkClusters(edges);
+		edges.toArrays(this);
+	}
+
+	public GridGraph getGraph(){ return graph; }
+	public int getClusterSize(){ return clusterSize; }
+	public int getNodeCount(){ return nodeCount; }
+	public int getEdgeCount(){ return edgeTarget.length; }
+	/** @return approximate bytes held by the abstract graph and its tile index */
+	public long getMemoryFootprint(){
+		return 4L*(nodeAt.length+nodeCount+clusterStart.length+clusterNodes.length+edgeStart.length+2*edgeTarget.length);
+	}
+
+	public int getCluster(int tile){
+		int sizeY = graph.getSizeY();
+		return (tile/sizeY/clusterSize)*clustersY + (tile%sizeY)/clusterSize;
+	}
+
+	// ----------------------------------------------------------------
+	// CONSTRUCTION
+	// ----------------------------------------------------------------
+	protected void findTransitions(EdgeList edges){
+		int sizeX = graph.getSizeX();
+		int sizeY = graph.getSizeY();
+		// borders between horizontally adjacent clusters, along y
+		for(int x=clusterSize;x<sizeX;x+=clusterSize){
+			for(int y0=0;y0<sizeY;y0+=clusterSize){
+				int y1 = Math.min(y0+clusterSize, sizeY);
+				int run = 0;
+				for(int y=y0;y<=y1;y++){
+					if(y<y1 && graph.isWalkable(x-1,y) && graph.isWalkable(x,y)){ run++; continue; }
+					if(run>0){ addEntrance(edges, x-1, y-run, x, y-run, 0, 1, run); }
+					run = 0;
+				}
+			}
+		}
+		// borders between vertically adjacent clusters, along x
+		for(int y=clusterSize;y<sizeY;y+=clusterSize){
+			for(int x0=0;x0<sizeX;x0+=clusterSize){
+				int x1 = Math.min(x0+clusterSize, sizeX);
+				int run = 0;
+				for(int x=x0;x<=x1;x++){
+					if(x<x1 && graph.isWalkable(x,y-1) && graph.isWalkable(x,y)){ run++; continue; }
+					if(run>0){ addEntrance(edges, x-run, y-1, x-run, y, 1, 0, run); }
+					run = 0;
+				}
+			}
+		}
+	}
+
+	/** Adds the transitions of a run of length tiles starting at (ax,ay)|(bx,by) and going along (dx,dy). */
+	protected void addEntrance(EdgeList edges, int ax, int ay, int bx, int by, int dx, int dy, int length){
+		if(length>=LONG_ENTRANCE){
+			addTransition(edges, graph.getTile(ax,ay), graph.getTile(bx,by));
+			int last = length-1;
+			addTransition(edges, graph.getTile(ax+dx*last,ay+dy*last), graph.getTile(bx+dx*last,by+dy*last));
+		} else {
+			int middle = length/2;
+			addTransition(edges, graph.getTile(ax+dx*middle,ay+dy*middle), graph.getTile(bx+dx*middle,by+dy*middle));
+		}
+	}
+
+	protected void addTransition(EdgeList edges, int tileA, int tileB){
+		int a = addNode(tileA);
+		int b = addNode(tileB);
+		edges.add(a, b, 1);
+		edges.add(b, a, 1);
+	}
+
+	protected int addNode(int tile){
+		if(nodeAt[tile]>=0){ return nodeAt[tile]; }
+		if(nodeCount==nodeTile.length){ nodeTile = Arrays.copyOf(nodeTile, nodeCount*2); }
+		nodeTile[nodeCount] = tile;
+		nodeAt[tile] = nodeCount;
+		return nodeCount++;
+	}
+
+	protected void groupByCluster(){
+		nodeTile = Arrays.copyOf(nodeTile, nodeCount);
+		clusterStart = new int[clustersX*clustersY+1];
+		for(int n=0;n<nodeCount;n++){ clusterStart[getCluster(nodeTile[n])+1]++; }
+		for(int c=0;c<clustersX*clustersY;c++){ clusterStart[c+1] += clusterStart[c]; }
+		clusterNodes = new int[nodeCount];
+		int[] fill = Arrays.copyOf(clusterStart, clusterStart.length-1);
+		for(int n=0;n<nodeCount;n++){ clusterNodes[fill[getCluster(nodeTile[n])]++] = n; }
+	}
+
+	protected void linkClusters(EdgeList edges){
+		Scratch s = new Scratch(this);
+		for(int c=0;c<clustersX*clustersY;c++){
+			for(int i=clusterStart[c];i<clusterStart[c+1];i++){
+				int from = clusterNodes[i];
+				searchCluster(s, nodeTile[from]);
+				for(int j=clusterStart[c];j<clusterStart[c+1];j++){
+					int to = clusterNodes[j];
+					int distance = s.localDistance(nodeTile[to]);
+					if(to!=from && distance>=0){ edges.add(from, to, distance); }
+				}
+			}
+		}
+	}
+
+	/** Breadth-first search from a tile that never leaves its cluster; results are read with Scratch.localDistance(). */
+	protected void searchCluster(Scratch s, int start){
+		int sizeY = graph.getSizeY();
+		int cluster = getCluster(start);
+		int minX = (cluster/clustersY)*clusterSize;
+		int minY = (cluster%clustersY)*clusterSize;
+		int maxX = Math.min(minX+clusterSize, graph.getSizeX());
+		int maxY = Math.min(minY+clusterSize, sizeY);
+		s.originX = minX;
+		s.originY = minY;
+		Arrays.fill(s.local, -1);
+		int[] queue = s.queue;
+		int head = 0;
+		int tail = 0;
+		s.local[s.localIndex(start)] = 0;
+		s.localParent[s.localIndex(start)] = -1;
+		queue[tail++] = start;
+		while(head<tail){
+			int current = queue[head++];
+			int distance = s.local[s.localIndex(current)];
+			for(int l=graph.linkStart[current];l<graph.linkStart[current+1];l++){
+				int next = graph.linkTarget[l];
+				int x = next/sizeY;
+				int y = next%sizeY;
+				if(x<minX || y<minY || x>=maxX || y>=maxY){ continue; }
+				int index = s.localIndex(next);
+				if(s.local[index]>=0){ continue; }
+				s.local[index] = distance+1;
+				s.localParent[index] = current;
+				queue[tail++] = next;
+			}
+		}
+	}
+
+	// ----------------------------------------------------------------
+	// QUERIES
+	// ----------------------------------------------------------------
+	final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>(){
+		protected Scratch initialValue(){ return new Scratch(HierarchicalGraph.this); }
+	};
+
+	/** @return length of a near-shortest path between two grid tiles, or -1 if none was found */
+	public int getDistance(int start, int goal){
+		Scratch s = scratch.get();
+		return search(s, start, goal) ? s.bestDistance : -1;
+	}
+
+	/** @return the grid tiles of a near-shortest path from start to goal, both included, or null */
+	public int[] getPath(int start, int goal){
+		Scratch s = scratch.get();
+		if(!search(s, start, goal)){ return null; }
+		int[] result = new int[s.bestDistance+1];
+		int length = 0;
+		// abstract nodes from the goal side back to the start side
+		int count = 0;
+		int[] chain = s.chain;
+		for(int n=s.bestNode;n>=0;n=s.parent[n]){ chain[count++] = n; }
+		int from = start;
+		for(int i=count-1;i>=0;i--){
+			length = appendWalk(s, result, length, from, nodeTile[chain[i]]);
+			from = nodeTile[chain[i]];
+		}
+		length = appendWalk(s, result, length, from, goal);
+		result[length++] = goal;
+		return length==result.length ? result : Arrays.copyOf(result, length);
+	}
+
+	/** Appends the tiles from a (included) to b (excluded), walking inside a's cluster or across one border. */
+	protected int appendWalk(Scratch s, int[] path, int length, int a, int b){
+		if(a==b){ return length; }
+		if(getCluster(a)!=getCluster(b)){
+			path[length++] = a;
+			return length;
+		}
+		searchCluster(s, b);
+		for(int tile=a;tile!=b;tile=s.localParent[s.localIndex(tile)]){ path[length++] = tile; }
+		return length;
+	}
+
+	/** Leaves the best distance in s.bestDistance and the last abstract node used in s.bestNode (-1 for none). */
+	protected boolean search(Scratch s, int start, int goal){
+		int tiles = graph.getTileCount();
+		if(start<0 || goal<0 || start>=tiles || goal>=tiles || !graph.isWalkable(start) || !graph.isWalkable(goal)){ return false; }
+		s.bestDistance = Integer.MAX_VALUE;
+		s.bestNode = -1;
+		s.generation++;
+		s.heapSize = 0;
+		int goalCluster = getCluster(goal);
+		// distances from the goal to the abstract nodes of its cluster
+		searchCluster(s, goal);
+		for(int i=clusterStart[goalCluster];i<clusterStart[goalCluster+1];i++){
+			int n = clusterNodes[i];
+			s.goalDistance[n] = s.localDistance(nodeTile[n]);
+			s.goalStamp[n] = s.generation;
+		}
+		// from the start to its cluster's abstract nodes, and directly to the goal
+		searchCluster(s, start);
+		if(getCluster(start)==goalCluster){
+			int direct = s.localDistance(goal);
+			if(direct>=0){ s.bestDistance = direct; }
+		}
+		int startCluster = getCluster(start);
+		for(int i=clusterStart[startCluster];i<clusterStart[startCluster+1];i++){
+			int n = clusterNodes[i];
+			int distance = s.localDistance(nodeTile[n]);
+			if(distance>=0){ s.open(n, distance, -1, heuristic(n,goal)); }
+		}
+		while(s.heapSize>0){
+			int f = (int)(s.heap[0]>>>32);
+			int n = s.pop();
+			if(f>=s.bestDistance){ break; }
+			if(s.closed[n]==s.generation){ continue; }
+			s.closed[n] = s.generation;
+			int g = s.g[n];
+			if(s.goalStamp[n]==s.generation && s.goalDistance[n]>=0 && g+s.goalDistance[n]<s.bestDistance){
+				s.bestDistance = g+s.goalDistance[n];
+				s.bestNode = n;
+			}
+			for(int e=edgeStart[n];e<edgeStart[n+1];e++){
+				int next = edgeTarget[e];
+				if(s.closed[next]==s.generation){ continue; }
+				s.open(next, g+edgeCost[e], n, heuristic(next,goal));
+			}
+		}
+		return s.bestDistance!=Integer.MAX_VALUE;
+	}
+
+	protected int heuristic(int node, int goal){
+		int sizeY = graph.getSizeY();
+		int tile = nodeTile[node];
+		return Math.abs(tile/sizeY-goal/sizeY) + Math.abs(tile%sizeY-goal%sizeY);
+	}
+
+	/** Per-thread working arrays for queries. */
+	static class Scratch {
+		final int clusterSize;
+		final int sizeY;
+		int originX, originY;
+		final int[] local;			// distance within the searched cluster, by local index
+		final int[] localParent;
+		final int[] queue;
+		int generation;
+		final int[] stamp;
+		final int[] closed;
+		final int[] g;
+		final int[] parent;
+		final int[] goalStamp;
+		final int[] goalDistance;
+		final int[] chain;
+		long[] heap = new long[256];	// (f<<32)|(MAX_VALUE-g): lowest f first, then deepest; stale entries are skipped
+		int[] heapNode = new int[256];
+		int heapSize;
+		int bestDistance;
+		int bestNode;
+
+		Scratch(HierarchicalGraph owner){
+			clusterSize = owner.clusterSize;
+			sizeY = owner.graph.getSizeY();
+			local = new int[clusterSize*clusterSize];
+			localParent = new int[clusterSize*clusterSize];
+			queue = new int[clusterSize*clusterSize];
+			int nodes = owner.nodeCount;
+			stamp = new int[nodes];
+			closed = new int[nodes];
+			g = new int[nodes];
+			parent = new int[nodes];
+			goalStamp = new int[nodes];
+			goalDistance = new int[nodes];
+			chain = new int[nodes];
+		}
+
+		int localIndex(int tile){ return (tile/sizeY-originX)*clusterSize + (tile%sizeY-originY); }
+		int localDistance(int tile){ return local[localIndex(tile)]; }
+
+		void open(int node, int nodeG, int from, int h){
+			if(stamp[node]==generation && g[node]<=nodeG){ return; }
+			stamp[node] = generation;
+			g[node] = nodeG;
+			parent[node] = from;
+			if(heapSize==heap.length){ 
+				heap = Arrays.copyOf(heap, heapSize*2);
+				heapNode = Arrays.copyOf(heapNode, heapSize*2);
+			}
+			long entry = ((long)(nodeG+h)<<32) | (Integer.MAX_VALUE-nodeG);
+			int i = heapSize++;
+			while(i>0){
+				int up = (i-1)>>>1;
+				if(heap[up]<=entry){ break; }
+				heap[i] = heap[up];
+				heapNode[i] = heapNode[up];
+				i = up;
+			}
+			heap[i] = entry;
+			heapNode[i] = node;
+		}
+
+		int pop(){
+			int result = heapNode[0];
+			long entry = heap[--heapSize];
+			int node = heapNode[heapSize];
+			int i = 0;
+			while(true){
+				int child = 2*i+1;
+				if(child>=heapSize){ break; }
+				if(child+1<heapSize && heap[child+1]<heap[child]){ child++; }
+				if(entry<=heap[child]){ break; }
+				heap[i] = heap[child];
+				heapNode[i] = heapNode[child];
+				i = child;
+			}
+			heap[i] = entry;
+			heapNode[i] = node;
+			return result;
+		}
+	}
+
+	/** Edges collected during construction, then packed by source node. */
+	static class EdgeList {
+		int[] from = new int[256];
+		int[] to = new int[256];
+		int[] cost = new int[256];
+		int size;
+
+		void add(int a, int b, int c){
+			if(size==from.length){
+				from = Arrays.copyOf(from, size*2);
+				to = Arrays.copyOf(to, size*2);
+				cost = Arrays.copyOf(cost, size*2);
+			}
+			from[size] = a;
+			to[size] = b;
+			cost[size] = c;
+			size++;
+		}
+
+		void toArrays(HierarchicalGraph owner){
+			int[] start = new int[owner.nodeCount+1];
+			for(int i=0;i<size;i++){ start[from[i]+1]++; }
+			for(int n=0;n<owner.nodeCount;n++){ start[n+1] += start[n]; }
+			int[] fill = Arrays.copyOf(start, owner.nodeCount);
+			owner.edgeTarget = new int[size];
+			owner.edgeCost = new int[size];
+			for(int i=0;i<size;i++){
+				int slot = fill[from[i]]++;
+				owner.edgeTarget[slot] = to[i];
+				owner.edgeCost[slot] = cost[i];
+			}
+			owner.edgeStart = start;
+		}
+	}
+}
@@ -1,146 +1,310 @@
-package libraries;
-
-import ai.pathfinder.Node;
-import ai.pathfinder.Pathfinder;
-import java.util.ArrayList;
-import java.util.Vector;
-import util.math2d.Point2D;
-import util.math2d.Vector2D;
-
-public class PathLibrary {
-	static public Pathfinder init(boolean[][] map){
-		Pathfinder result = new Pathfinder();
-		int spacing = 1;
-		//astar.corners=false;
-		result.setCuboidNodes(map.length, map[0].length, spacing);
-		for(Object temp : result.nodes){
-			Node n = (Node)temp;
-			n.walkable = !map[(int)(n.x)][(int)(n.y)];
-		}
-		result.radialDisconnectUnwalkables();
-		return result;
-	}
-	
-	static public Node findNode(int x, int y, Pathfinder pf){
-		for(Object temp : pf.nodes){
-			Node n = (Node)temp;
-			if(n.x == x && n.y == y){ return n; }
-		}
-		return null;
-	}
-	
-	static public ArrayList getPath(Point2D p1, Point2D p2, boolean[][] map){
-		return getPath((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y), map);
-	}
-	static public ArrayList getPath(int x1,int y1,int x2,int y2, boolean[][] map){ 
-		Pathfinder pf = init(map);
-		Node start = findNode(x1,y1,pf);
-		Node end = findNode(x2,y2,pf);
-		ArrayList result = pf.aStar(findNode(x1,y1,pf),findNode(x2,y2,pf));
-		if(	hasStart(result,x2,y2) && hasEnd(result,x1,y1) ){ 
-			return result;
-		}
-		return null;
-	}
-	
-	public static boolean hasStart(ArrayList path, int x, int y){
-		if(path!=null){
-			Node temp = (Node)path.get(0);
-			if(temp.x==x && temp.y==y){ return true; }
-		}
-		return false;
-	}
-	
-	public static boolean hasNode(ArrayList path, int x, int y){
-		if(path!=null){
-			for(int i = 0; i < path.size(); i++){
-				Node temp = (Node)path.get(i);
-				if(temp.x==x && temp.y==y){ return true; }
-			}
-		}
-		return false;
-	}
-	
-	public static boolean hasEnd(ArrayList path, int x, int y){
-		if(path!=null){
-			Node temp = (Node)path.get(path.size()-1);
-			if(temp.x==x && temp.y==y){ return true; }
-		}
-		return false;
-	}
-	
-	public static Vector<Point2D> transformPath(ArrayList path){
-		Vector<Point2D> result = new Vector<Point2D>();
-		for(int i=0;i<path.size();i++){
-			Node n = (Node)(path.get(i));
-			result.add(new Point2D(n.x,n.y));
-		}
-		return result;
-	}
-	public static ArrayList transformPath(Vector<Point2D> path){
-		ArrayList result = new ArrayList();
-		for(int i=0;i<path.size();i++){
-			Point2D n = path.get(i);
-			result.add(new Node((float)(n.x),(float)(n.y)));
-		}
-		return result;
-	}
-	public static Point2D transformNode(Node n){
-		return new Point2D(n.x,n.y);
-	}
-	public static Node transformNode(Point2D n){
-		return new Node((float)(n.x),(float)(n.y));
-	}
-	public static float calculateDistance(ArrayList path){
-		if(path.size()<2){ return 0.f; }
-		float result = 0.f;
-		for(int i=1;i<path.size();i++){
-			Node curr = (Node)(path.get(i));
-			Node prev = (Node)(path.get(i-1));
-			result += Vector2D.euclidianDistance(new Point2D(curr.x,curr.y), new Point2D(prev.x,prev.y));
-		}
-		return result;
-	}
-	
-	public static boolean[][] transformPath(ArrayList base, int sizeX, int sizeY){
-		return transformPath(transformPath(base),sizeX,sizeY);
-	}
-	public static boolean[][] transformPath(Vector<Point2D> base, int sizeX, int sizeY){
-		if(base==null || base.size()==0){ return null; }
-		boolean[][] result = new boolean[sizeX][sizeY];
-		for(int x=0;x<result.length;x++){
-			for(int y=0;y<result[0].length;y++){
-				result[x][y]=false;
-			}
-		}
-		for(int i=0;i<base.size();i++){
-			int x = (int)(base.get(i).x);
-			int y = (int)(base.get(i).y);
-			if(i<base.size()-1 && x!=base.get(i+1).x && y!=base.get(i+1).y){
-				result[(int)(base.get(i+1).x)][y]=true;
-				result[x][(int)(base.get(i+1).y)]=true;
-			}
-			result[x][y]=true;
-		}
-		return result;
-	}
-	
-	public static String print(Vector<Point2D> path){
-		String result = "";
-		for(int i=0;i<path.size();i++){
-			result+="("+path.get(i).x+","+path.get(i).y+")";
-			if(i<path.size()-1){ result+="->"; } 
-		}
-		return result;
-	}
-	
-	public static String print(ArrayList path){
-		String result = "";
-		for(int i=0;i<path.size();i++){
-			Node n = (Node)(path.get(i));
-			result+="("+n.x+","+n.y+")";
-			if(i<path.size()-1){ result+="->"; } 
-		}
-		return result;
-	}
-}
+package libraries;
+
+import ai.pathfinder.Node;
+import ai.pathfinder.Pathfinder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Vector;
+import util.math2d.Point2D;
+import util.statics.HashUtils;
+
+public class PathLibrary {
+	static public Pathfinder init(boolean[][] map){
+		Pathfinder result = new Pathfinder();
+		int spacing = 1;
+		//astar.corners=false;
+		result.setCuboidNodes(map.length, map[0].length, spacing);
+		for(Object temp : result.nodes){
+			Node n = (Node)temp;
+			n.walkable = !map[(int)(n.x)][(int)(n.y)];
+		}
+		result.radialDisconnectUnwalkables();
+		return result;
+	}
+	
+	/** 
+	 * Nodes made by setCuboidNodes() are listed row by row, so the node at 
+	 * (x,y) is found by index; other node lists fall back to a scan.
+	 */
+	static public Node findNode(int x, int y, Pathfinder pf){
+		if(pf.nodes.isEmpty()){ return null; }
+		Node last = (Node)pf.nodes.get(pf.nodes.size()-1);
+		int sizeX = (int)(last.x)+1;
+		int index = y*sizeX+x;
+		if(x>=0 && x<sizeX && index>=0 && index<pf.nodes.size()){
+			Node n = (Node)pf.nodes.get(index);
+			if(n.x == x && n.y == y){ return n; }
+		}
+		for(Object temp : pf.nodes){
+			Node n = (Node)temp;
+			if(n.x == x && n.y == y){ return n; }
+		}
+		return null;
+	}
+	
+	/** @return the nodes of a pathfinder by grid tile (x*sizeY+y); tiles without a node are null */
+	static public Node[] indexNodes(Pathfinder pf, int sizeX, int sizeY){
+		Node[] result = new Node[sizeX*sizeY];
+		for(Object temp : pf.nodes){
+			Node n = (Node)temp;
+			int x = (int)(n.x);
+			int y = (int)(n.y);
+			if(x>=0 && y>=0 && x<sizeX && y<sizeY && n.x==x && n.y==y){ result[x*sizeY+y] = n; }
+		}
+		return result;
+	}
+	
+	static public ArrayList getPath(Point2D p1, Point2D p2, boolean[][] map){
+		return getPath((int)(p1.x),(int)(p1.y),(int)(p2.x),(int)(p2.y), map);
+	}
+	static public ArrayList getPath(int x1,int y1,int x2,int y2, boolean[][] map){ 
+		CachedMap prepared = prepare(map);
+		GridGraph graph = prepared.graph;
+		if(!graph.isWithinBounds(x1,y1) || !graph.isWithinBounds(x2,y2)){ return null; }
+		return toNodePath(prepared.getPath(graph.getTile(x1,y1), graph.getTile(x2,y2)), graph);
+	}
+	
+	// ----------------------------------------------------------------
+	// CACHE OF PREPARED MAPS
+	// ----------------------------------------------------------------
+	// getPath() keeps the graphs of the most recently used maps, and the paths 
+	// found on each, in LRU order; maps are found by contentHash() and then 
+	// compared tile by tile, so a hash collision only costs a miss. 
+	// Searches run outside the lock, so threads only wait for lookups.
+	static final Object cacheLock = new Object();
+	static int mapCapacity = 64;
+	static int pathCapacity = 4096;	// per map
+	static LinkedHashMap<Long,CachedMap> mapCache = createMapCache();
+	static long mapHits, mapMisses, mapEvictions;
+	static long pathHits, pathMisses, pathEvictions;
+	
+	static class CachedMap {
+		final GridGraph graph;
+		final LinkedHashMap<Long,int[]> paths;
+		
+		CachedMap(GridGraph graph){ 
+			this.graph = graph;
+			this.paths = new LinkedHashMap<Long,int[]>(16, 0.75f, true){
+				protected boolean removeEldestEntry(Map.Entry<Long,int[]> eldest){
+					if(size()<=pathCapacity){ return false; }
+					pathEvictions++;
+					return true;
+				}
+			};
+		}
+		
+		/** Unreachable goals are cached too, as null. */
+		int[] getPath(int from, int to){
+			Long key = Long.valueOf(((long)from<<32) | to);
+			synchronized(cacheLock){
+				if(paths.containsKey(key)){
+					pathHits++;
+					return paths.get(key);
+				}
+				pathMisses++;
+			}
+			int[] result = GridPathfinder.aStar(graph, from, to);
+			synchronized(cacheLock){ paths.put(key, result); }
+			return result;
+		}
+		
+		boolean matches(boolean[][] map){
+			if(map.length!=graph.getSizeX() || map[0].length!=graph.getSizeY()){ return false; }
+			for(int x=0;x<map.length;x++){
+				for(int y=0;y<map[x].length;y++){
+					if(map[x][y]==graph.isWalkable(x,y)){ return false; }
+				}
+			}
+			return true;
+		}
+	}
+	
+	static LinkedHashMap<Long,CachedMap> createMapCache(){
+		return new LinkedHashMap<Long,CachedMap>(16, 0.75f, true){
+			protected boolean removeEldestEntry(Map.Entry<Long,CachedMap> eldest){
+				if(size()<=mapCapacity){ return false; }
+				mapEvictions++;
+				return true;
+			}
+		};
+	}
+	
+	static CachedMap prepare(boolean[][] map){
+		Long key = Long.valueOf(contentHash(map));
+		CachedMap cached;
+		synchronized(cacheLock){ cached = mapCache.get(key); }
+		boolean hit = cached!=null && cached.matches(map);
+		synchronized(cacheLock){
+			if(hit){ mapHits++; } else { mapMisses++; }
+		}
+		if(hit){ return cached; }
+		boolean[][] walkable = new boolean[map.length][map[0].length];
+		for(int x=0;x<map.length;x++){
+			for(int y=0;y<map[x].length;y++){ walkable[x][y] = !map[x][y]; }
+		}
+		CachedMap result = new CachedMap(new GridGraph(walkable, true));
+		synchronized(cacheLock){ mapCache.put(key, result); }
+		return result;
+	}
+	
+	/** @return the 8-connected graph that getPath() searches for this impassable map, from the cache if possible */
+	static public GridGraph getGraph(boolean[][] map){ return prepare(map).graph; }
+	
+	/** @return a 64-bit hash of the size and contents of a boolean map */
+	static public long contentHash(boolean[][] map){
+		long result = map.length*31L+map[0].length;
+		long word = 0;
+		int bits = 0;
+		for(int x=0;x<map.length;x++){
+			for(int y=0;y<map[x].length;y++){
+				word = (word<<1) | (map[x][y] ? 1 : 0);
+				if(++bits==64){
+					result = result*31+word;
+					word = 0;
+					bits = 0;
+				}
+			}
+		}
+		result = result*31+word;
+		return HashUtils.mix(result);
+	}
+	
+	/** Sets how many maps, and how many paths per map, getPath() remembers; empties the cache. */
+	static public void setCacheCapacity(int maps, int pathsPerMap){
+		synchronized(cacheLock){
+			mapCapacity = maps;
+			pathCapacity = pathsPerMap;
+			mapCache = createMapCache();
+		}
+	}
+	static public void clearCache(){
+		synchronized(cacheLock){
+			mapCache.clear();
+			mapHits = mapMisses = mapEvictions = 0;
+			pathHits = pathMisses = pathEvictions = 0;
+		}
+	}
+	static public long getMapCacheHits(){ synchronized(cacheLock){ return mapHits; } }
+	static public long getMapCacheMisses(){ synchronized(cacheLock){ return mapMisses; } }
+	static public long getMapCacheEvictions(){ synchronized(cacheLock){ return mapEvictions; } }
+	static public long getPathCacheHits(){ synchronized(cacheLock){ return pathHits; } }
+	static public long getPathCacheMisses(){ synchronized(cacheLock){ return pathMisses; } }
+	static public long getPathCacheEvictions(){ synchronized(cacheLock){ return pathEvictions; } }
+	
+	/** 
+	 * Converts a tile path (start first) into the Node list returned by 
+	 * ai.pathfinder.Pathfinder.aStar(), which starts at the goal. 
+	 */
+	public static ArrayList<Node> toNodePath(int[] tiles, GridGraph graph){
+		if(tiles==null){ return null; }
+		ArrayList<Node> result = new ArrayList<Node>(tiles.length);
+		for(int i=tiles.length-1;i>=0;i--){
+			result.add(new Node(graph.getTileX(tiles[i]), graph.getTileY(tiles[i])));
+		}
+		return result;
+	}
+	
+	public static boolean hasStart(ArrayList path, int x, int y){
+		if(path!=null){
+			Node temp = (Node)path.get(0);
+			if(temp.x==x && temp.y==y){ return true; }
+		}
+		return false;
+	}
+	
+	public static boolean hasNode(ArrayList path, int x, int y){
+		if(path!=null){
+			for(int i = 0; i < path.size(); i++){
+				Node temp = (Node)path.get(i);
+				if(temp.x==x && temp.y==y){ return true; }
+			}
+		}
+		return false;
+	}
+	
+	public static boolean hasEnd(ArrayList path, int x, int y){
+		if(path!=null){
+			Node temp = (Node)path.get(path.size()-1);
+			if(temp.x==x && temp.y==y){ return true; }
+		}
+		return false;
+	}
+	
+	public static Vector<Point2D> transformPath(ArrayList path){
+		Vector<Point2D> result = new Vector<Point2D>();
+		for(int i=0;i<path.size();i++){
+			Node n = (Node)(path.get(i));
+			result.add(new Point2D(n.x,n.y));
+		}
+		return result;
+	}
+	public static ArrayList transformPath(Vector<Point2D> path){
+		ArrayList result = new ArrayList();
+		for(int i=0;i<path.size();i++){
+			Point2D n = path.get(i);
+			result.add(new Node((float)(n.x),(float)(n.y)));
+		}
+		return result;
+	}
+	public static Point2D transformNode(Node n){
+		return new Point2D(n.x,n.y);
+	}
+	public static Node transformNode(Point2D n){
+		return new Node((float)(n.x),(float)(n.y));
+	}
+	public static float calculateDistance(ArrayList path){
+		if(path.size()<2){ return 0.f; }
+		float result = 0.f;
+		for(int i=1;i<path.size();i++){
+			Node curr = (Node)(path.get(i));
+			Node prev = (Node)(path.get(i-1));
+			double dx = curr.x-prev.x;
+			double dy = curr.y-prev.y;
+			result += Math.sqrt(dx*dx+dy*dy);
+		}
+		return result;
+	}
+	
+	public static boolean[][] transformPath(ArrayList base, int sizeX, int sizeY){
+		return transformPath(transformPath(base),sizeX,sizeY);
+	}
+	public static boolean[][] transformPath(Vector<Point2D> base, int sizeX, int sizeY){
+		if(base==null || base.size()==0){ return null; }
+		boolean[][] result = new boolean[sizeX][sizeY];
+		for(int x=0;x<result.length;x++){
+			for(int y=0;y<result[0].length;y++){
+				result[x][y]=false;
+			}
+		}
+		for(int i=0;i<base.size();i++){
+			int x = (int)(base.get(i).x);
+			int y = (int)(base.get(i).y);
+			if(i<base.size()-1 && x!=base.get(i+1).x && y!=base.get(i+1).y){
+				result[(int)(base.get(i+1).x)][y]=true;
+				result[x][(int)(base.get(i+1).y)]=true;
+			}
+			result[x][y]=true;
+		}
+		return result;
+	}
+	
+	public static String print(Vector<Point2D> path){
+		String result = "";
+		for(int i=0;i<path.size();i++){
+			result+="("+path.get(i).x+","+path.get(i).y+")";
+			if(i<path.size()-1){ result+="->"; } 
+		}
+		return result;
+	}
+	
+	public static String print(ArrayList path){
+		String result = "";
+		for(int i=0;i<path.size();i++){
+			Node n = (Node)(path.get(i));
+			result+="("+n.x+","+n.y+")";
+			if(i<path.size()-1){ result+="->"; } 
+		}
+		return result;
+	}
+}
@@ -0,0 +1,156 @@
+package libraries;
+
+import java.util.ArrayList;
+import java.util.Vector;
+
+import ai.pathfinder.Node;
+import util.math2d.Point2D;
+
+/**
+ * A path stored as the grid tiles (x*sizeY+y) of a GridGraph, in order, with
+ * its euclidean length worked out once and a bitset of its tiles for
+ * membership and overlap tests. Much smaller than the ArrayList of
+ * ai.pathfinder Nodes that the rest of the code passes around; toNodePath()
+ * and the other conversions give the old forms when they are needed.
+ * The bitset only spans the words between the lowest and highest tile of the
+ * path, so short paths on large maps stay small.
+ */
+public class TilePath {
+	final GridGraph graph;
+	final int[] tiles;
+	final float length;
+	final int firstWord;	// tile bit t is bit (t&63) of bits[(t>>6)-firstWord]
+	final long[] bits;
+
+	/** @param tiles grid tiles of the path in order; kept, not copied */
+	public TilePath(GridGraph graph, int[] tiles){
+		this.graph = graph;
+		this.tiles = tiles;
+		int min = Integer.MAX_VALUE;
+		int max = -1;
+		float sum = 0.f;
+		for(int i=0;i<tiles.length;i++){
+			min = Math.min(min, tiles[i]);
+			max = Math.max(max, tiles[i]);
+			if(i>0){ sum += graph.getEuclidean(tiles[i-1], tiles[i]); }
+		}
+		length = sum;
+		if(tiles.length==0){
+			firstWord = 0;
+			bits = new long[0];
+			return;
+		}
+		firstWord = min>>6;
+		bits = new long[(max>>6)-firstWord+1];
+		for(int i=0;i<tiles.length;i++){ bits[(tiles[i]>>6)-firstWord] |= 1L<<(tiles[i]&63); }
+	}
+
+	/** @return the path from a node list as returned by ai.pathfinder.Pathfinder.aStar(), in the same order */
+	public static TilePath fromNodePath(ArrayList<?> path, GridGraph graph){
+		if(path==null){ return null; }
+		int[] tiles = new int[path.size()];
+		for(int i=0;i<tiles.length;i++){
+			Node n = (Node)path.get(i);
+			tiles[i] = graph.getTile((int)(n.x), (int)(n.y));
+		}
+		return new TilePath(graph, tiles);
+	}
+
+	/** @return the same tiles in the opposite order */
+	public TilePath reverse(){
+		int[] result = new int[tiles.length];
+		for(int i=0;i<tiles.length;i++){ result[i] = tiles[tiles.length-1-i]; }
+		return new TilePath(graph, result);
+	}
+
+	public GridGraph getGraph(){ return graph; }
+	/** @return the grid tiles in order; do not modify */
+	public int[] getTiles(){ return tiles; }
+	public int size(){ return tiles.length; }
+	public int getSteps(){ return Math.max(0, tiles.length-1); }
+	/** @return the euclidean length, as PathLibrary.calculateDistance() measures it */
+	public float getLength(){ return length; }
+
+	public int getTile(int i){ return tiles[i]; }
+	public int getX(int i){ return graph.getTileX(tiles[i]); }
+	public int getY(int i){ return graph.getTileY(tiles[i]); }
+	public int getStartX(){ return getX(0); }
+	public int getStartY(){ return getY(0); }
+	public int getEndX(){ return getX(tiles.length-1); }
+	public int getEndY(){ return getY(tiles.length-1); }
+
+	public boolean hasStart(int x, int y){
+		return tiles.length>0 && graph.isWithinBounds(x,y) && tiles[0]==graph.getTile(x,y);
+	}
+	public boolean hasEnd(int x, int y){
+		return tiles.length>0 && graph.isWithinBounds(x,y) && tiles[tiles.length-1]==graph.getTile(x,y);
+	}
+
+	public boolean contains(int x, int y){
+		return graph.isWithinBounds(x,y) && contains(graph.getTile(x,y));
+	}
+	public boolean contains(int tile){
+		int word = (tile>>6)-firstWord;
+		if(tile<0 || word<0 || word>=bits.length){ return false; }
+		return (bits[word] & (1L<<(tile&63)))!=0;
+	}
+
+	/** @return whether the two paths (on the same graph) share a tile */
+	public boolean overlaps(TilePath other){
+		int from = Math.max(firstWord, other.firstWord);
+		int to = Math.min(firstWord+bits.length, other.firstWord+other.bits.length);
+		for(int word=from;word<to;word++){
+			if((bits[word-firstWord] & other.bits[word-other.firstWord])!=0){ return true; }
+		}
+		return false;
+	}
+
+	/** @return the number of tiles the two paths (on the same graph) share */
+	public int countShared(TilePath other){
+		int from = Math.max(firstWord, other.firstWord);
+		int to = Math.min(firstWord+bits.length, other.firstWord+other.bits.length);
+		int result = 0;
+		for(int word=from;word<to;word++){
+			result += Long.bitCount(bits[word-firstWord] & other.bits[word-other.firstWord]);
+		}
+		return result;
+	}
+
+	/** @return the path as a list of ai.pathfinder Nodes, in the same order */
+	public ArrayList<Node> toNodePath(){
+		ArrayList<Node> result = new ArrayList<Node>(tiles.length);
+		for(int i=0;i<tiles.length;i++){ result.add(new Node(getX(i), getY(i))); }
+		return result;
+	}
+
+	public Vector<Point2D> toPoints(){
+		Vector<Point2D> result = new Vector<Point2D>(tiles.length);
+		for(int i=0;i<tiles.length;i++){ result.add(new Point2D(getX(i), getY(i))); }
+		return result;
+	}
+
+	/** @return the tiles of the path marked on a map, as PathLibrary.transformPath() does, or null if it is empty */
+	public boolean[][] toGrid(){
+		if(tiles.length==0){ return null; }
+		boolean[][] result = new boolean[graph.getSizeX()][graph.getSizeY()];
+		for(int i=0;i<tiles.length;i++){
+			int x = getX(i);
+			int y = getY(i);
+			if(i<tiles.length-1 && x!=getX(i+1) && y!=getY(i+1)){
+				result[getX(i+1)][y] = true;
+				result[x][getY(i+1)] = true;
+			}
+			result[x][y] = true;
+		}
+		return result;
+	}
+
+	public String toString(){
+		StringBuilder result = new StringBuilder();
+		for(int i=0;i<tiles.length;i++){
+			result.append("(").append(getX(i)).append(",").append(getY(i)).append(")");
+			if(i<tiles.length-1){ result.append("->"); }
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,78 @@
+package neuroevolution;
+
+import dungeon.play.DistanceField;
+import dungeon.play.PlayMap;
+import util.math2d.IntGridView;
+
+/**
+ * What a policy network sees of a PlayMap, written into a float array.
+ * <ul>
+ * <li>for every tile of the viewport but the hero's own, one input each for
+ * wall (or off the map), monster, treasure, potion and exit;</li>
+ * <li>for the nearest exit, treasure, potion and monster and each of the four
+ * moves, +1 if the move brings the hero closer to it, -1 if it leads away or
+ * is blocked, 0 if there is none left;</li>
+ * <li>the hero's hitpoints as a share of its starting hitpoints.</li>
+ * </ul>
+ * The distance fields are those of the map itself, which are kept up to date
+ * as entities die rather than built again for every read.
+ */
+public class Features {
+	final static int[] VIEW_TYPES = { PlayMap.WALL, PlayMap.MONSTER, PlayMap.TREASURE, PlayMap.POTION, PlayMap.EXIT };
+	final static int[] GOALS = { DistanceField.GOAL_EXITS, DistanceField.GOAL_REWARDS, DistanceField.GOAL_POTIONS, DistanceField.GOAL_MONSTERS };
+	final static int[] STEP_X = { 0, 1, 0, -1 };
+	final static int[] STEP_Y = { -1, 0, 1, 0 };
+
+	final int viewSize;
+	final PlayMap map;
+	final IntGridView view;		// of the viewport array, which the map updates in place
+	final DistanceField[] fields = new DistanceField[GOALS.length];
+
+	public Features(PlayMap map){
+		this.map = map;
+		viewSize = 2*map.getViewRange()+1;
+		view = map.getViewPortGrid();
+		for(int i=0;i<GOALS.length;i++){ fields[i] = map.getDistanceField(GOALS[i], 0); }
+	}
+
+	/** @return the number of inputs for a map with the given view range */
+	public static int getCount(int viewRange){
+		int viewSize = 2*viewRange+1;
+		return (viewSize*viewSize-1)*VIEW_TYPES.length + GOALS.length*4 + 1;
+	}
+	public int getCount(){ return getCount(map.getViewRange()); }
+
+	public PlayMap getMap(){ return map; }
+
+	/** Writes the features of the map's current state into result (getCount() values). */
+	public void read(float[] result){
+		int i = 0;
+		int centre = viewSize/2;
+		for(int x=0;x<viewSize;x++){
+			for(int y=0;y<viewSize;y++){
+				if(x==centre && y==centre){ continue; }
+				int tile = view.get(x,y);
+				for(int t=0;t<VIEW_TYPES.length;t++){
+					result[i++] = tile==VIEW_TYPES[t] || (VIEW_TYPES[t]==PlayMap.WALL && tile==PlayMap.NONE) ? 1 : 0;
+				}
+			}
+		}
+		int heroX = map.getHero().getX();
+		int heroY = map.getHero().getY();
+		for(int g=0;g<fields.length;g++){
+			float here = fields[g].getDistance(heroX, heroY);
+			for(int action=0;action<4;action++){
+				int x = heroX+STEP_X[action];
+				int y = heroY+STEP_Y[action];
+				if(here==DistanceField.UNREACHABLE){
+					result[i++] = 0;
+				} else if(!map.isWithinBounds(x,y) || !map.isPassable(x,y)){
+					result[i++] = -1;
+				} else {
+					result[i++] = fields[g].getDistance(x,y)<here ? 1 : -1;
+				}
+			}
+		}
+		result[i++] = map.getHero().getHitpoints()/(float)map.getHero().getStartingHitpoints();
+	}
+}
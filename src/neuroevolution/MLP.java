@@ -0,0 +1,52 @@
+package neuroevolution;
+
+/**
+ * The shape of a fully connected network with one tanh hidden layer, whose
+ * weights are kept outside it in one flat float array per genome: for each
+ * hidden unit its bias and then one weight per input, then for each output
+ * its bias and one weight per hidden unit. Evaluating allocates nothing;
+ * the caller passes the buffers.
+ */
+public class MLP {
+	final int inputs;
+	final int hidden;
+	final int outputs;
+
+	public MLP(int inputs, int hidden, int outputs){
+		this.inputs = inputs;
+		this.hidden = hidden;
+		this.outputs = outputs;
+	}
+
+	public int getInputs(){ return inputs; }
+	public int getHidden(){ return hidden; }
+	public int getOutputs(){ return outputs; }
+	public int getWeightCount(){ return hidden*(inputs+1) + outputs*(hidden+1); }
+
+	/**
+	 * @param hiddenValues buffer of getHidden() values, overwritten
+	 * @param output buffer of getOutputs() values, overwritten with the (linear) outputs
+	 */
+	public void evaluate(float[] weights, float[] input, float[] hiddenValues, float[] output){
+		int w = 0;
+		for(int h=0;h<hidden;h++){
+			float sum = weights[w++];
+			for(int i=0;i<inputs;i++){ sum += weights[w++]*input[i]; }
+			hiddenValues[h] = (float)Math.tanh(sum);
+		}
+		for(int o=0;o<outputs;o++){
+			float sum = weights[w++];
+			for(int h=0;h<hidden;h++){ sum += weights[w++]*hiddenValues[h]; }
+			output[o] = sum;
+		}
+	}
+
+	/** @return the output with the highest value among the bits of a legal move mask, or -1 (PlayMap.IDLE) if there are none */
+	public static int pickMove(float[] output, int moves){
+		int result = -1;
+		for(int action=0;action<output.length;action++){
+			if((moves & (1<<action))!=0 && (result<0 || output[action]>output[result])){ result = action; }
+		}
+		return result;
+	}
+}
@@ -0,0 +1,41 @@
+package neuroevolution;
+
+import controllers.Controller;
+import dungeon.play.GameCharacter;
+import dungeon.play.PlayMap;
+
+/**
+ * Plays the policy of one genome: reads the Features of the map, runs the
+ * MLP over the genome's weights and takes the legal move with the highest
+ * output. The buffers are made once, so a decision allocates nothing.
+ */
+public class NeuroController extends Controller {
+	final MLP network;
+	float[] weights;
+	Features features;
+	final float[] input;
+	final float[] hiddenValues;
+	final float[] output;
+
+	public NeuroController(PlayMap map, GameCharacter controllingChar, MLP network, float[] weights){
+		this(map, controllingChar, network, weights, "NeuroController");
+	}
+	public NeuroController(PlayMap map, GameCharacter controllingChar, MLP network, float[] weights, String label){
+		super(map,controllingChar,label);
+		this.network = network;
+		this.weights = weights;
+		input = new float[network.getInputs()];
+		hiddenValues = new float[network.getHidden()];
+		output = new float[network.getOutputs()];
+	}
+
+	public void setWeights(float[] value){ weights = value; }
+	public float[] getWeights(){ return weights; }
+
+	public int getNextAction(){
+		if(features==null || features.getMap()!=map){ features = new Features(map); }
+		features.read(input);
+		network.evaluate(weights, input, hiddenValues, output);
+		return MLP.pickMove(output, map.getLegalMoves(map.getHero().getX(), map.getHero().getY()));
+	}
+}
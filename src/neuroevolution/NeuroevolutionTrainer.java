@@ -0,0 +1,233 @@
+package neuroevolution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.io.File;
+
+import dungeon.DungeonLoader;
+import dungeon.play.DistanceField;
+import dungeon.play.PlayMap;
+import util.statics.RandomNumberManager;
+
+/**
+ * Evolves the weights of MLP policies (see NeuroController) with a
+ * generational genetic algorithm: the best genomes are kept as they are and
+ * the rest of each generation are children of tournament-picked parents,
+ * made by uniform crossover and gaussian mutation.
+ * <p>
+ * A genome's fitness is the sum of what it scores on every dungeon of a
+ * folder: one per treasure, plus exitBonus for reaching the exit, or if it
+ * is still alive when time runs out, up to half of that for how much closer
+ * to the exit it got. Every (genome, dungeon) game is a task of a fork/join
+ * pool. A task takes a Player, a PlayMap of its dungeon with its own
+ * controller buffers, from a queue of idle ones (making a new one only when
+ * all are busy), so games never share a map and maps are loaded once.
+ */
+public class NeuroevolutionTrainer {
+	int populationSize = 64;
+	int elites = 8;
+	int tournamentSize = 3;
+	double mutationRate = 0.05;
+	double mutationSigma = 0.3;
+	double initialSigma = 0.3;
+	int maxActions = 150;
+	float exitBonus = 10;
+
+	final MLP network;
+	final String[] asciiMaps;
+	final List<ConcurrentLinkedQueue<Player>> idlePlayers;
+	final ForkJoinPool pool;
+	final Random random;
+	float[][] population;
+	double[] fitness;
+	double[][] gameFitness;	// [genome][map]
+	boolean[][] exitReached;
+	int generation;
+
+	// statistics of the last generation evaluated
+	float[] bestWeights;
+	double bestFitness;
+	double meanFitness;
+	int bestExits;
+
+	public NeuroevolutionTrainer(String folder, int threads, int hiddenUnits){
+		File[] files = new File(folder).listFiles((dir, name) -> name.endsWith(".txt"));
+		Arrays.sort(files);
+		asciiMaps = new String[files.length];
+		for(int i=0;i<files.length;i++){
+			try {
+				asciiMaps[i] = new Scanner(files[i]).useDelimiter("\\A").next();
+			} catch(Exception e){
+				System.out.println(e.toString());
+			}
+		}
+		idlePlayers = new ArrayList<ConcurrentLinkedQueue<Player>>(asciiMaps.length);
+		for(int i=0;i<asciiMaps.length;i++){ idlePlayers.add(new ConcurrentLinkedQueue<Player>()); }
+		PlayMap sample = new PlayMap(DungeonLoader.loadAsciiDungeon(asciiMaps[0]));
+		network = new MLP(Features.getCount(sample.getViewRange()), hiddenUnits, 4);
+		pool = new ForkJoinPool(Math.max(1, threads));
+		random = new Random(RandomNumberManager.getRandomInt());
+	}
+
+	public void setPopulationSize(int value){ populationSize = value; population = null; }
+	public void setElites(int value){ elites = value; }
+	public void setMutation(double rate, double sigma){
+		mutationRate = rate;
+		mutationSigma = sigma;
+	}
+	public void setMaxActions(int value){ maxActions = value; }
+
+	public MLP getNetwork(){ return network; }
+	public int getMapCount(){ return asciiMaps.length; }
+	public int getGeneration(){ return generation; }
+	public int getThreads(){ return pool.getParallelism(); }
+
+	/** Evaluates the current generation (making a random one first if there is none) and breeds the next. */
+	public void runGeneration(){
+		if(population==null){
+			population = new float[populationSize][network.getWeightCount()];
+			for(int g=0;g<populationSize;g++){
+				for(int w=0;w<population[g].length;w++){ population[g][w] = (float)(random.nextGaussian()*initialSigma); }
+			}
+		}
+		evaluate();
+		breed();
+		generation++;
+	}
+
+	/** Plays every genome on every dungeon on the pool and sums up the fitness of each genome. */
+	public void evaluate(){
+		if(gameFitness==null || gameFitness.length!=population.length){
+			gameFitness = new double[population.length][asciiMaps.length];
+			exitReached = new boolean[population.length][asciiMaps.length];
+			fitness = new double[population.length];
+		}
+		pool.invoke(new EvaluateTask(0, population.length*asciiMaps.length));
+		for(int g=0;g<population.length;g++){
+			fitness[g] = 0;
+			for(int m=0;m<asciiMaps.length;m++){ fitness[g] += gameFitness[g][m]; }
+		}
+	}
+
+	/** Replaces the population with the elites (best first) and children of tournament-picked parents. */
+	protected void breed(){
+		Integer[] order = new Integer[population.length];
+		for(int g=0;g<order.length;g++){ order[g] = g; }
+		Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+		float[][] next = new float[populationSize][];
+		for(int g=0;g<Math.min(elites, populationSize);g++){ next[g] = population[order[g]]; }
+		for(int g=Math.min(elites, populationSize);g<populationSize;g++){
+			float[] mother = population[pickParent()];
+			float[] father = population[pickParent()];
+			float[] child = new float[mother.length];
+			for(int w=0;w<child.length;w++){
+				child[w] = random.nextBoolean() ? mother[w] : father[w];
+				if(random.nextDouble()<mutationRate){ child[w] += (float)(random.nextGaussian()*mutationSigma); }
+			}
+			next[g] = child;
+		}
+		bestWeights = population[order[0]];
+		bestFitness = fitness[order[0]];
+		bestExits = 0;
+		for(int m=0;m<asciiMaps.length;m++){ if(exitReached[order[0]][m]){ bestExits++; } }
+		meanFitness = 0;
+		for(int g=0;g<fitness.length;g++){ meanFitness += fitness[g]/fitness.length; }
+		population = next;
+	}
+
+	protected int pickParent(){
+		int result = random.nextInt(population.length);
+		for(int i=1;i<tournamentSize;i++){
+			int other = random.nextInt(population.length);
+			if(fitness[other]>fitness[result]){ result = other; }
+		}
+		return result;
+	}
+
+	/** Splits a range of games (genome*maps+map) in halves down to single games. */
+	class EvaluateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final int from;
+		final int to;
+
+		EvaluateTask(int from, int to){
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute(){
+			if(to-from==1){
+				play(from/asciiMaps.length, from%asciiMaps.length);
+				return;
+			}
+			int middle = (from+to)>>>1;
+			invokeAll(new EvaluateTask(from, middle), new EvaluateTask(middle, to));
+		}
+	}
+
+	/** A map of one dungeon with the controller that plays on it; used by one game at a time. */
+	class Player {
+		final PlayMap map;
+		final NeuroController controller;
+
+		Player(int mapIndex){
+			map = new PlayMap(DungeonLoader.loadAsciiDungeon(asciiMaps[mapIndex]));
+			map.startGame();
+			controller = new NeuroController(map, map.getHero(), network, null);
+		}
+	}
+
+	protected void play(int genome, int mapIndex){
+		Player player = idlePlayers.get(mapIndex).poll();
+		if(player==null){ player = new Player(mapIndex); }
+		PlayMap map = player.map;
+		map.startGame();
+		player.controller.setWeights(population[genome]);
+		DistanceField exitField = map.getDistanceField(DistanceField.GOAL_EXITS, 0);
+		float startDistance = exitField.getDistance(map.getHero().getX(), map.getHero().getY());
+		for(int i=0;i<maxActions && !map.isGameHalted();i++){ map.applyMove(player.controller.getNextAction()); }
+		boolean exit = map.isGameHalted() && map.getHero().isAlive();
+		double result = map.getRewardsCollected();
+		if(exit){
+			result += exitBonus;
+		} else if(map.getHero().isAlive() && startDistance>0 && startDistance!=DistanceField.UNREACHABLE){
+			float distance = exitField.getDistance(map.getHero().getX(), map.getHero().getY());
+			result += 0.5*exitBonus*Math.max(0, 1-distance/startDistance);
+		}
+		gameFitness[genome][mapIndex] = result;
+		exitReached[genome][mapIndex] = exit;
+		idlePlayers.get(mapIndex).offer(player);
+	}
+
+	public float[] getBestWeights(){ return bestWeights; }
+	public double getBestFitness(){ return bestFitness; }
+	public double getMeanFitness(){ return meanFitness; }
+	/** @return the number of dungeons whose exit the best genome reached */
+	public int getBestExits(){ return bestExits; }
+
+	public void shutdown(){ pool.shutdown(); }
+
+	/** @param args number of threads (default: available processors), generations, population size */
+	public static void main(String[] args) {
+		int threads = args.length>0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int generations = args.length>1 ? Integer.parseInt(args[1]) : 50;
+		NeuroevolutionTrainer trainer = new NeuroevolutionTrainer("./dungeons", threads, 12);
+		if(args.length>2){ trainer.setPopulationSize(Integer.parseInt(args[2])); }
+		System.out.println("generation;n;threads;n;bestFitness;f;meanFitness;f;bestExits;n;generationsPerMinute;n/min");
+		long start = System.nanoTime();
+		for(int g=0;g<generations;g++){
+			trainer.runGeneration();
+			double minutes = (System.nanoTime()-start)/6e10;
+			System.out.println(g+";threads;"+trainer.getThreads()+";bestFitness;"+trainer.getBestFitness()+";meanFitness;"+trainer.getMeanFitness()+
+					";bestExits;"+trainer.getBestExits()+"/"+trainer.getMapCount()+";generationsPerMinute;"+(trainer.getGeneration()/minutes));
+		}
+		trainer.shutdown();
+	}
+}
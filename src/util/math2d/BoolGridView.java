@@ -0,0 +1,73 @@
+package util.math2d;
+
+/**
+ * Read-only, live view of a 2D boolean grid. Views share the storage of the 
+ * object that produced them, so reading one never copies; call toArray() 
+ * when a snapshot that survives later changes is needed. The combinators 
+ * (not, and, andNot) are lazy and are evaluated tile by tile on access.
+ */
+public interface BoolGridView {
+	public int getSizeX();
+	public int getSizeY();
+	public boolean get(int x, int y);
+
+	/** @return number of true tiles */
+	public default int count(){
+		int result = 0;
+		for(int x=0;x<getSizeX();x++){
+			for(int y=0;y<getSizeY();y++){
+				if(get(x,y)){ result++; }
+			}
+		}
+		return result;
+	}
+
+	/** @return a defensive copy of the grid */
+	public default boolean[][] toArray(){
+		boolean[][] result = new boolean[getSizeX()][getSizeY()];
+		for(int x=0;x<result.length;x++){
+			for(int y=0;y<result[x].length;y++){
+				result[x][y] = get(x,y);
+			}
+		}
+		return result;
+	}
+
+	public default BoolGridView not(){
+		final BoolGridView base = this;
+		return new BoolGridView(){
+			public int getSizeX(){ return base.getSizeX(); }
+			public int getSizeY(){ return base.getSizeY(); }
+			public boolean get(int x, int y){ return !base.get(x,y); }
+			public int count(){ return getSizeX()*getSizeY()-base.count(); }
+			public BoolGridView not(){ return base; }
+		};
+	}
+
+	public default BoolGridView and(final BoolGridView other){
+		final BoolGridView base = this;
+		return new BoolGridView(){
+			public int getSizeX(){ return base.getSizeX(); }
+			public int getSizeY(){ return base.getSizeY(); }
+			public boolean get(int x, int y){ return base.get(x,y) && other.get(x,y); }
+		};
+	}
+
+	public default BoolGridView andNot(final BoolGridView other){
+		final BoolGridView base = this;
+		return new BoolGridView(){
+			public int getSizeX(){ return base.getSizeX(); }
+			public int getSizeY(){ return base.getSizeY(); }
+			public boolean get(int x, int y){ return base.get(x,y) && !other.get(x,y); }
+		};
+	}
+
+	/** Wraps an existing array without copying it. */
+	public static BoolGridView of(final boolean[][] grid){
+		return new BoolGridView(){
+			public int getSizeX(){ return grid.length; }
+			public int getSizeY(){ return grid.length==0 ? 0 : grid[0].length; }
+			public boolean get(int x, int y){ return grid[x][y]; }
+		};
+	}
+}
@@ -0,0 +1,51 @@
+package util.math2d;
+
+/**
+ * Read-only, live view of a 2D int grid. Like {@link BoolGridView}, it never 
+ * copies unless toArray() is called explicitly.
+ */
+public interface IntGridView {
+	public int getSizeX();
+	public int getSizeY();
+	public int get(int x, int y);
+
+	/** @return a defensive copy of the grid */
+	public default int[][] toArray(){
+		int[][] result = new int[getSizeX()][getSizeY()];
+		for(int x=0;x<result.length;x++){
+			for(int y=0;y<result[x].length;y++){
+				result[x][y] = get(x,y);
+			}
+		}
+		return result;
+	}
+
+	/** @return lazy view of the tiles whose value is strictly above minValue */
+	public default BoolGridView above(final int minValue){
+		final IntGridView base = this;
+		return new BoolGridView(){
+			public int getSizeX(){ return base.getSizeX(); }
+			public int getSizeY(){ return base.getSizeY(); }
+			public boolean get(int x, int y){ return base.get(x,y)>minValue; }
+		};
+	}
+
+	/** @return lazy view of the tiles whose value equals the given one */
+	public default BoolGridView equalTo(final int value){
+		final IntGridView base = this;
+		return new BoolGridView(){
+			public int getSizeX(){ return base.getSizeX(); }
+			public int getSizeY(){ return base.getSizeY(); }
+			public boolean get(int x, int y){ return base.get(x,y)==value; }
+		};
+	}
+
+	/** Wraps an existing array without copying it. */
+	public static IntGridView of(final int[][] grid){
+		return new IntGridView(){
+			public int getSizeX(){ return grid.length; }
+			public int getSizeY(){ return grid.length==0 ? 0 : grid[0].length; }
+			public int get(int x, int y){ return grid[x][y]; }
+		};
+	}
+}
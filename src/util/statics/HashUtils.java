@@ -0,0 +1,14 @@
+package util.statics;
+
+public class HashUtils {
+	/** 
+	 * The final mix of splitmix64: spreads small differences in the input 
+	 * over all 64 bits of the result, and maps different inputs to different 
+	 * results.
+	 */
+	public static long mix(long value){
+		value = (value ^ (value>>>30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value>>>27)) * 0x94D049BB133111EBL;
+		return value ^ (value>>>31);
+	}
+}